@@ -0,0 +1,93 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.autoconfiguration;
+
+import java.util.Objects;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import sshd.shell.springboot.ShellException;
+import sshd.shell.springboot.autoconfiguration.SshdShellProperties.Shell.Command;
+
+/**
+ * Limits heavy commands running at a time over all sessions. Each command with a weight takes as many permits of a fair
+ * semaphore, so that waiting commands are admitted in order of arrival, and is rejected if it waits longer than the
+ * queue timeout.
+ *
+ * @author anand
+ */
+class CommandAdmission {
+
+    private final Command props;
+    private final Semaphore permits;
+    private final LongAdder admittedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+
+    CommandAdmission(Command props) {
+        this.props = props;
+        this.permits = new Semaphore(props.getPermits(), true);
+    }
+
+    /**
+     * @param command command or command.subcommand
+     * @return permits taken by command, 0 if it is not limited
+     */
+    int weight(String command) {
+        if (props.getPermits() <= 0) {
+            return 0;
+        }
+        Integer weight = props.getWeights().get(command);
+        int separator = command.indexOf('.');
+        if (Objects.isNull(weight) && separator > 0) {
+            weight = props.getWeights().get(command.substring(0, separator));
+        }
+        return Objects.isNull(weight) ? 0 : Math.max(0, Math.min(props.getPermits(), weight));
+    }
+
+    void acquire(String command, int weight) throws InterruptedException, ShellException {
+        if (weight == 0) {
+            return;
+        }
+        if (!permits.tryAcquire(weight, props.getQueueTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+            rejectedCount.increment();
+            throw new ShellException("Too many heavy commands running, " + command + " was not admitted within "
+                    + props.getQueueTimeout().toMillis() + "ms. Please try again later");
+        }
+        admittedCount.increment();
+    }
+
+    void release(int weight) {
+        if (weight > 0) {
+            permits.release(weight);
+        }
+    }
+
+    int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    int getQueueLength() {
+        return permits.getQueueLength();
+    }
+
+    long getAdmittedCount() {
+        return admittedCount.sum();
+    }
+
+    long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+}
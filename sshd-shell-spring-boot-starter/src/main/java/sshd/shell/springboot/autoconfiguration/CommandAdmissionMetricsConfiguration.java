@@ -0,0 +1,49 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.autoconfiguration;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Permits of heavy commands and how many commands were admitted or rejected.
+ *
+ * @author anand
+ */
+@Configuration
+@ConditionalOnClass(MeterBinder.class)
+@ConditionalOnProperty(name = "sshd.shell.enabled", havingValue = "true")
+class CommandAdmissionMetricsConfiguration {
+
+    @Bean
+    MeterBinder sshdCommandAdmissionMetrics(CommandAdmission admission) {
+        return registry -> {
+            Gauge.builder("sshd.shell.command.permits.available", admission, CommandAdmission::getAvailablePermits)
+                    .description("Permits of heavy commands not taken").register(registry);
+            Gauge.builder("sshd.shell.command.permits.queued", admission, CommandAdmission::getQueueLength)
+                    .description("Heavy commands waiting for permits").register(registry);
+            FunctionCounter.builder("sshd.shell.command.admitted", admission, CommandAdmission::getAdmittedCount)
+                    .description("Heavy commands admitted").register(registry);
+            FunctionCounter.builder("sshd.shell.command.rejected", admission, CommandAdmission::getRejectedCount)
+                    .description("Heavy commands rejected after waiting for permits").register(registry);
+        };
+    }
+}
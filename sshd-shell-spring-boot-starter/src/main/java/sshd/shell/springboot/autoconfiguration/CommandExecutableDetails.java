@@ -50,6 +50,10 @@ public class CommandExecutableDetails {
     }
 
     public String executeWithArg(String arg) throws InterruptedException, ShellException {
+        return commandExecutor.get(arg).asString();
+    }
+
+    public StreamingOutput streamWithArg(String arg) throws InterruptedException, ShellException {
         return commandExecutor.get(arg);
     }
 
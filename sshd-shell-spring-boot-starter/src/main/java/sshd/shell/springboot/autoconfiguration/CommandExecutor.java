@@ -27,5 +27,5 @@ import sshd.shell.springboot.ShellException;
 @FunctionalInterface
 interface CommandExecutor {
 
-    String get(String arg) throws InterruptedException, ShellException;
+    StreamingOutput get(String arg) throws InterruptedException, ShellException;
 }
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.autoconfiguration;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import sshd.shell.springboot.ShellException;
+import sshd.shell.springboot.autoconfiguration.SshdShellProperties.Shell.Cache;
+
+/**
+ * Opt-in cache of command results for expensive read-only commands. Results are cached per command, subcommand and
+ * argument for the configured ttl. Concurrent identical requests wait for the one in flight instead of executing the
+ * command again. Entries are evicted by expiry first, then by earliest expiry once max entries or max weight (two
+ * bytes per character of output) are exceeded. Output is collected only up to max weight; larger output is not cached
+ * and the command is executed again to stream it, as it is for further requests up to ttl. Failed executions,
+ * including those failing while writing output, are not cached.
+ *
+ * @author anand
+ */
+@lombok.extern.slf4j.Slf4j
+class CommandResultCache {
+
+    private final Cache props;
+    private final long maxWeight;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private long totalWeight;
+
+    CommandResultCache(Cache props) {
+        this.props = props;
+        this.maxWeight = props.getMaxWeight().toBytes();
+        if (props.isEnabled()) {
+            props.getTtl().keySet().forEach(command -> stats.put(command, new Stats()));
+        }
+    }
+
+    /**
+     * Decorate command executor with cache if caching is enabled and command has a ttl.
+     *
+     * @param command command or command.subcommand
+     * @param commandExecutor command executor
+     * @return caching command executor or the command executor as is
+     */
+    CommandExecutor decorate(String command, CommandExecutor commandExecutor) {
+        Duration ttl = props.getTtl().get(command);
+        if (!props.isEnabled() || Objects.isNull(ttl)) {
+            return commandExecutor;
+        }
+        log.info("Caching results of command {} for {}", command, ttl);
+        Stats commandStats = stats.get(command);
+        return arg -> get(new Key(command, arg), ttl.toNanos(), commandStats, commandExecutor);
+    }
+
+    private StreamingOutput get(Key key, long ttlNanos, Stats commandStats, CommandExecutor commandExecutor)
+            throws InterruptedException, ShellException {
+        while (true) {
+            Entry existing = entries.get(key);
+            if (Objects.nonNull(existing) && !existing.isExpired(System.nanoTime())) {
+                try {
+                    String result = existing.result.get();
+                    if (Objects.isNull(result)) {
+                        commandStats.misses.increment();
+                        return commandExecutor.get(key.arg); // Too large to be cached
+                    }
+                    commandStats.hits.increment();
+                    return StreamingOutput.of(result);
+                } catch (ExecutionException ex) {
+                    continue; // Execution in flight failed and was removed, retry
+                }
+            }
+            Entry created = new Entry();
+            boolean owner = Objects.isNull(existing)
+                    ? Objects.isNull(entries.putIfAbsent(key, created))
+                    : entries.replace(key, existing, created);
+            if (owner) {
+                if (Objects.nonNull(existing)) {
+                    removed(existing);
+                }
+                commandStats.misses.increment();
+                return execute(key, created, ttlNanos, commandExecutor);
+            }
+        }
+    }
+
+    private StreamingOutput execute(Key key, Entry entry, long ttlNanos, CommandExecutor commandExecutor)
+            throws InterruptedException, ShellException {
+        StreamingOutput output;
+        try {
+            output = commandExecutor.get(key.arg);
+        } catch (InterruptedException | ShellException | RuntimeException ex) {
+            abandon(key, entry, ex);
+            throw ex;
+        }
+        BoundedWriter writer = new BoundedWriter(maxWeight / 2);
+        try {
+            output.writeTo(writer);
+        } catch (IOException | RuntimeException ex) {
+            if (!writer.overflowed) {
+                abandon(key, entry, ex);
+                return failed(writer.output.toString(), ex);
+            }
+        }
+        entry.expiresAt = System.nanoTime() + ttlNanos;
+        if (writer.overflowed) {
+            // Entry without result lets requests up to ttl stream output uncached instead of collecting it again
+            log.debug("Output of {} exceeds max weight of cache, not cached", key.command);
+            entry.result.complete(null);
+            added(key, entry, 0);
+            return commandExecutor.get(key.arg);
+        }
+        String result = writer.output.toString();
+        entry.result.complete(result);
+        added(key, entry, 2L * result.length());
+        return StreamingOutput.of(result);
+    }
+
+    /**
+     * Requests waiting for the entry retry, i.e. execute the command themselves.
+     */
+    private void abandon(Key key, Entry entry, Exception ex) {
+        entries.remove(key, entry);
+        entry.result.completeExceptionally(ex);
+    }
+
+    /**
+     * Output written before the failure is written as it would have been without cache, then the failure is thrown
+     * while writing as well.
+     */
+    private StreamingOutput failed(String output, Exception ex) {
+        IOException failure = ex instanceof IOException
+                ? (IOException) ex
+                : new IOException(ex.getMessage(), ex);
+        return writer -> {
+            writer.write(output);
+            throw failure;
+        };
+    }
+
+    private synchronized void added(Key key, Entry entry, long weight) {
+        if (entries.get(key) != entry) {
+            return; // Already replaced or evicted
+        }
+        if (weight > maxWeight) {
+            entries.remove(key, entry);
+            return;
+        }
+        entry.weight = weight;
+        totalWeight += weight;
+        evictIfRequired();
+    }
+
+    private synchronized void removed(Entry entry) {
+        release(entry);
+    }
+
+    private void evictIfRequired() {
+        if (entries.size() <= props.getMaxEntries() && totalWeight <= maxWeight) {
+            return;
+        }
+        long now = System.nanoTime();
+        entries.entrySet().removeIf(e -> e.getValue().isExpired(now) && release(e.getValue()));
+        while (entries.size() > props.getMaxEntries() || totalWeight > maxWeight) {
+            Map.Entry<Key, Entry> eldest = entries.entrySet().stream()
+                    .filter(e -> e.getValue().result.isDone())
+                    .min(Comparator.comparingLong(e -> e.getValue().expiresAt))
+                    .orElse(null);
+            if (Objects.isNull(eldest) || !entries.remove(eldest.getKey(), eldest.getValue())) {
+                return;
+            }
+            release(eldest.getValue());
+        }
+    }
+
+    private boolean release(Entry entry) {
+        totalWeight -= entry.weight;
+        entry.weight = 0;
+        return true;
+    }
+
+    Set<String> getCachedCommands() {
+        return Collections.unmodifiableSet(stats.keySet());
+    }
+
+    long getHitCount(String command) {
+        return stats.get(command).hits.sum();
+    }
+
+    long getMissCount(String command) {
+        return stats.get(command).misses.sum();
+    }
+
+    int getSize() {
+        return entries.size();
+    }
+
+    synchronized long getWeight() {
+        return totalWeight;
+    }
+
+    @lombok.Value
+    private static class Key {
+
+        String command;
+        String arg;
+    }
+
+    private static class Entry {
+
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+        private volatile long expiresAt;
+        private long weight;
+
+        /**
+         * Executions in flight never expire so that concurrent requests wait for them.
+         */
+        boolean isExpired(long now) {
+            return result.isDone() && now - expiresAt >= 0;
+        }
+    }
+
+    /**
+     * Collects output up to a max length. Beyond that, output collected so far is dropped and every write fails, so
+     * that output too large to be cached is never held whole.
+     */
+    @lombok.RequiredArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+    private static class BoundedWriter extends Writer {
+
+        private final long maxLength;
+        private final StringBuilder output = new StringBuilder();
+        private boolean overflowed;
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            if (overflowed || output.length() + (long) len > maxLength) {
+                overflowed = true;
+                output.setLength(0);
+                output.trimToSize();
+                throw new IOException("Output exceeds max weight");
+            }
+            output.append(cbuf, off, len);
+        }
+
+        @Override
+        public void flush() {
+            // Nothing to flush
+        }
+
+        @Override
+        public void close() {
+            // Nothing to close
+        }
+    }
+
+    private static class Stats {
+
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+    }
+}
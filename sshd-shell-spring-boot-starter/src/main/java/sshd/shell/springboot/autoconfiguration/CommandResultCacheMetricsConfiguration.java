@@ -0,0 +1,54 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.autoconfiguration;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hit and miss counters of cached commands, tagged by command.
+ *
+ * @author anand
+ */
+@Configuration
+@ConditionalOnClass(MeterBinder.class)
+@ConditionalOnProperty(name = {"sshd.shell.enabled", "sshd.shell.cache.enabled"}, havingValue = "true")
+class CommandResultCacheMetricsConfiguration {
+
+    @Bean
+    MeterBinder sshdCommandResultCacheMetrics(CommandResultCache cache) {
+        return registry -> {
+            for (String command : cache.getCachedCommands()) {
+                FunctionCounter.builder("sshd.shell.command.cache.hits", cache, c -> c.getHitCount(command))
+                        .tag("command", command).description("Command executions served from cache")
+                        .register(registry);
+                FunctionCounter.builder("sshd.shell.command.cache.misses", cache, c -> c.getMissCount(command))
+                        .tag("command", command).description("Command executions not found in cache")
+                        .register(registry);
+            }
+            Gauge.builder("sshd.shell.command.cache.size", cache, CommandResultCache::getSize)
+                    .description("Cached command results").register(registry);
+            Gauge.builder("sshd.shell.command.cache.weight", cache, CommandResultCache::getWeight)
+                    .description("Estimated size of cached command results in bytes").baseUnit("bytes")
+                    .register(registry);
+        };
+    }
+}
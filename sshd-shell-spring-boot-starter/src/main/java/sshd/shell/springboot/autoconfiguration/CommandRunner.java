@@ -0,0 +1,300 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.autoconfiguration;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import sshd.shell.springboot.ShellException;
+import sshd.shell.springboot.autoconfiguration.SshdShellProperties.Shell.Command;
+import sshd.shell.springboot.autoconfiguration.SshdShellProperties.Shell.Executor;
+import sshd.shell.springboot.util.ExecutorUtils;
+
+/**
+ * Runs commands on worker threads, virtual if available, with the session context of the caller. The session thread
+ * waits for the command up to its timeout. When the wait times out or is interrupted, e.g. by Ctrl-C, the command is
+ * cancelled by interrupting its thread and the session thread returns at once, even if the command does not stop.
+ * Output streamed by the command is mostly produced as it is written on the session thread, so the timeout covers
+ * writing it too; once it passes, the writing thread is interrupted as by Ctrl-C.
+ *
+ * @author anand
+ */
+@lombok.extern.slf4j.Slf4j
+class CommandRunner {
+
+    private final Command props;
+    private final CommandAdmission admission;
+    private final ExecutorService executorService;
+    private final ScheduledExecutorService timeoutScheduler
+            = ExecutorUtils.newScheduledExecutor("ssh-command-timeout-");
+
+    CommandRunner(Command props, Executor executorProps, CommandAdmission admission) {
+        this(props, admission, newExecutorService(executorProps));
+    }
+
+    CommandRunner(Command props, CommandAdmission admission, ExecutorService executorService) {
+        this.props = props;
+        this.admission = admission;
+        this.executorService = executorService;
+    }
+
+    private static ExecutorService newExecutorService(Executor executorProps) {
+        ExecutorService virtualExecutor = executorProps.getType() == Executor.Type.PLATFORM
+                ? null
+                : ExecutorUtils.newVirtualThreadPerTaskExecutor().orElse(null);
+        return virtualExecutor != null
+                ? virtualExecutor
+                : ExecutorUtils.newBoundedExecutor("ssh-command-", executorProps.getMaxThreads(), 0,
+                        executorProps.getKeepAlive());
+    }
+
+    /**
+     * Decorate command executor to run on a worker thread with timeout.
+     *
+     * @param command command or command.subcommand
+     * @param timeoutMillis timeout declared on command, -1 if none is declared
+     * @param commandExecutor command executor
+     * @return command executor running on worker thread
+     */
+    CommandExecutor decorate(String command, long timeoutMillis, CommandExecutor commandExecutor) {
+        Duration timeout = props.getTimeouts().getOrDefault(command, timeoutMillis < 0
+                ? props.getTimeout()
+                : Duration.ofMillis(timeoutMillis));
+        if (!timeout.isZero()) {
+            log.info("Command {} times out after {}", command, timeout);
+        }
+        int weight = admission.weight(command);
+        if (weight > 0) {
+            log.info("Command {} takes {} of {} permits", command, weight, props.getPermits());
+        }
+        return arg -> {
+            long deadline = System.nanoTime() + timeout.toNanos();
+            Permits permits = new Permits(weight);
+            StreamingOutput output = run(command, timeout, submit(command, permits, commandExecutor, arg), permits);
+            if (Objects.isNull(output)) {
+                permits.release();
+                return null;
+            }
+            StreamingOutput timedOutput = timeout.isZero()
+                    ? output
+                    : withDeadline(command, timeout, deadline, output);
+            return weight == 0 ? timedOutput : withPermits(timedOutput, permits);
+        };
+    }
+
+    /**
+     * Output streamed by the command does most of its work as it is written, so permits are held until then.
+     */
+    private static StreamingOutput withPermits(StreamingOutput output, Permits permits) {
+        return writer -> {
+            try {
+                output.writeTo(writer);
+            } finally {
+                permits.release();
+            }
+        };
+    }
+
+    private StreamingOutput withDeadline(String command, Duration timeout, long deadline, StreamingOutput output) {
+        return writer -> {
+            WriteDeadline writeDeadline = new WriteDeadline(Thread.currentThread());
+            ScheduledFuture<?> expiry = timeoutScheduler.schedule(writeDeadline::expire,
+                    deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            try {
+                output.writeTo(writer);
+            } catch (IOException | RuntimeException ex) {
+                if (!writeDeadline.end(expiry)) {
+                    throw ex;
+                }
+            } finally {
+                writeDeadline.end(expiry);
+            }
+            if (writeDeadline.end(expiry)) {
+                ShellException timedOut = timedOut(command, timeout);
+                throw new IOException(timedOut.getMessage(), timedOut);
+            }
+        };
+    }
+
+    /**
+     * Permits are taken before the command is submitted and given back once its output is written, or when it
+     * actually ends without output to write: it fails, or it is cancelled and its output is not seen. A command
+     * cancelled before it starts never runs, so whichever of the command and the cancellation claims the permits first
+     * gives them back in that case.
+     */
+    private Future<StreamingOutput> submit(String command, Permits permits, CommandExecutor commandExecutor,
+            String arg) throws InterruptedException, ShellException {
+        admission.acquire(command, permits.weight);
+        FutureTask<StreamingOutput> task = new FutureTask<StreamingOutput>(SshSessionContext.current().wrap(() -> {
+            if (!permits.claim()) {
+                return null; // Cancelled as it started, result is not seen
+            }
+            try {
+                return commandExecutor.get(arg);
+            } catch (Throwable ex) {
+                permits.release();
+                throw ex;
+            }
+        })) {
+            @Override
+            protected void set(StreamingOutput output) {
+                super.set(output);
+                if (isCancelled()) {
+                    permits.release(); // Cancelled while it ran, output is not seen
+                }
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled() && permits.claim()) {
+                    permits.release();
+                }
+            }
+        };
+        try {
+            executorService.execute(task);
+            return task;
+        } catch (RejectedExecutionException ex) {
+            permits.release();
+            throw new ShellException("Too many commands running, please try again later");
+        }
+    }
+
+    private StreamingOutput run(String command, Duration timeout, Future<StreamingOutput> future, Permits permits)
+            throws InterruptedException, ShellException {
+        try {
+            return timeout.isZero()
+                    ? future.get()
+                    : future.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            abandon(future, permits);
+            throw timedOut(command, timeout);
+        } catch (InterruptedException ex) {
+            abandon(future, permits);
+            throw ex;
+        } catch (ExecutionException ex) {
+            throw rethrow(ex.getCause());
+        }
+    }
+
+    /**
+     * Command executors throw only these, other exceptions of commands are turned into ShellException.
+     */
+    private RuntimeException rethrow(Throwable cause) throws InterruptedException, ShellException {
+        if (cause instanceof InterruptedException) {
+            throw (InterruptedException) cause;
+        } else if (cause instanceof ShellException) {
+            throw (ShellException) cause;
+        } else if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    /**
+     * Cancel command the session no longer waits for. If it has just ended with output, the output is not written.
+     */
+    private static void abandon(Future<StreamingOutput> future, Permits permits) {
+        if (!future.cancel(true)) {
+            permits.release();
+        }
+    }
+
+    private static ShellException timedOut(String command, Duration timeout) {
+        log.warn("[{}] Command {} timed out after {}", SshSessionContext.get(SshSessionContext.USER), command,
+                timeout);
+        return new ShellException("Command timed out after " + timeout.toMillis() + "ms");
+    }
+
+    void shutdown() {
+        executorService.shutdownNow();
+        timeoutScheduler.shutdownNow();
+    }
+
+    /**
+     * Permits taken by one run of a command, given back once.
+     */
+    @lombok.RequiredArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+    private class Permits {
+
+        private final int weight;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        /**
+         * @return whether permits were claimed by the caller, i.e. by the command as it starts or by its cancellation
+         * before it starts
+         */
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                admission.release(weight);
+            }
+        }
+    }
+
+    /**
+     * Interrupts the thread writing output once the deadline passes, unless writing has ended by then.
+     */
+    @lombok.RequiredArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+    private static class WriteDeadline {
+
+        private final Thread thread;
+        private boolean ended;
+        private boolean expired;
+
+        synchronized void expire() {
+            if (!ended) {
+                expired = true;
+                thread.interrupt();
+            }
+        }
+
+        /**
+         * Called on the writing thread, which is not interrupted once this returns.
+         *
+         * @param expiry scheduled expiry
+         * @return whether deadline passed while writing
+         */
+        boolean end(ScheduledFuture<?> expiry) {
+            expiry.cancel(false);
+            synchronized (this) {
+                if (!ended) {
+                    ended = true;
+                    if (expired) {
+                        Thread.interrupted(); // Interrupt was meant for the output only, not the session
+                    }
+                }
+                return expired;
+            }
+        }
+    }
+}
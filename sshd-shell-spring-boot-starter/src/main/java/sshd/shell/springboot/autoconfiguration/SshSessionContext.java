@@ -16,53 +16,313 @@
 package sshd.shell.springboot.autoconfiguration;
 
 import java.io.File;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
 /**
+ * Context of an SSH session. Values are held in slots indexed by typed {@link Key}s, so that reads take neither a
+ * lookup nor a cast at the caller, and are safe from other threads without locking. The context of the current thread
+ * is reached through the static methods; it can be carried to worker or virtual threads with
+ * {@link #wrap(Runnable)}. Contexts are bound to threads only by their session and tasks wrapped with them, never by
+ * the static methods, so that pooled threads do not keep stale contexts: reads on other threads find no value and
+ * writes fail. The string keyed methods of the former enum are kept, deprecated, for existing commands.
  *
  * @author anand
  */
-public enum SshSessionContext {
-    ;
+public final class SshSessionContext {
 
-    private static final ThreadLocal<Supplier<File>> USER_DIR_CONTEXT = new ThreadLocal<Supplier<File>>();
-    private static final ThreadLocal<Map<String, Object>> THREAD_CONTEXT
-            = ThreadLocal.withInitial(() -> new HashMap<>());
+    private static final ThreadLocal<SshSessionContext> CURRENT = new ThreadLocal<>();
+    private static final Object[] NO_SLOTS = new Object[0];
+    public static final Key<String> USER = Key.of(Constants.USER);
+    public static final Key<Collection<String>> USER_ROLES = Key.of(Constants.USER_ROLES);
+    private static final Key<Supplier<File>> USER_DIR = Key.of("__userDir");
 
+    private final AtomicReference<Object[]> slots = new AtomicReference<>(NO_SLOTS);
+    private final AtomicReference<Map<String, Object>> attributes = new AtomicReference<>();
+
+    /**
+     * @return context bound to current thread
+     * @throws IllegalStateException if no context is bound to current thread
+     */
+    public static SshSessionContext current() {
+        SshSessionContext context = CURRENT.get();
+        if (Objects.isNull(context)) {
+            throw new IllegalStateException("No SSH session context is bound to thread "
+                    + Thread.currentThread().getName() + ", only to sessions and tasks wrapped with their context");
+        }
+        return context;
+    }
+
+    /**
+     * @param <T> type of value
+     * @param key key
+     * @return value, null if there is none or no context is bound to current thread
+     */
+    public static <T> T get(Key<T> key) {
+        SshSessionContext context = CURRENT.get();
+        return Objects.isNull(context) ? null : context.getValue(key);
+    }
+
+    /**
+     * @param <T> type of value
+     * @param key key
+     * @param value value, null to remove
+     * @throws IllegalStateException if no context is bound to current thread
+     */
+    public static <T> void put(Key<T> key, T value) {
+        current().putValue(key, value);
+    }
+
+    public static <T> T remove(Key<T> key) {
+        SshSessionContext context = CURRENT.get();
+        return Objects.isNull(context) ? null : context.removeValue(key);
+    }
+
+    /**
+     * Put value under a string key, or under the typed key of that name if there is one.
+     *
+     * @param key key
+     * @param value value, null to remove
+     * @throws IllegalStateException if no context is bound to current thread
+     * @deprecated kept for callers of the former enum, use a typed {@link Key} instead
+     */
+    @Deprecated
     public static void put(String key, Object value) {
-        THREAD_CONTEXT.get().put(key, value);
+        Key<Object> namedKey = Key.named(key);
+        if (Objects.nonNull(namedKey)) {
+            put(namedKey, value);
+        } else if (Objects.isNull(value)) {
+            remove(key);
+        } else {
+            current().attributes(true).put(key, value);
+        }
     }
 
+    /**
+     * @param <E> type of value
+     * @param key string key, or name of a typed key
+     * @return value, null if there is none
+     * @deprecated kept for callers of the former enum, use a typed {@link Key} instead
+     */
+    @Deprecated
     @SuppressWarnings("unchecked")
     public static <E> E get(String key) {
-        return (E) THREAD_CONTEXT.get().get(key);
+        Key<Object> namedKey = Key.named(key);
+        if (Objects.nonNull(namedKey)) {
+            return (E) get(namedKey);
+        }
+        SshSessionContext context = CURRENT.get();
+        Map<String, Object> map = Objects.isNull(context) ? null : context.attributes(false);
+        return Objects.isNull(map) ? null : (E) map.get(key);
     }
 
+    /**
+     * @param <E> type of value
+     * @param key string key, or name of a typed key
+     * @return value removed, null if there was none
+     * @deprecated kept for callers of the former enum, use a typed {@link Key} instead
+     */
+    @Deprecated
     @SuppressWarnings("unchecked")
     public static <E> E remove(String key) {
-        return (E) THREAD_CONTEXT.get().remove(key);
+        Key<Object> namedKey = Key.named(key);
+        if (Objects.nonNull(namedKey)) {
+            return (E) remove(namedKey);
+        }
+        SshSessionContext context = CURRENT.get();
+        Map<String, Object> map = Objects.isNull(context) ? null : context.attributes(false);
+        return Objects.isNull(map) ? null : (E) map.remove(key);
     }
 
+    /**
+     * Null values are not held, so unlike the former enum, a key put with a null value is not contained.
+     *
+     * @param key string key, or name of a typed key
+     * @return whether there is a value for key
+     * @deprecated kept for callers of the former enum, use {@link #get(Key)} instead
+     */
+    @Deprecated
     public static boolean containsKey(String key) {
-        return THREAD_CONTEXT.get().containsKey(key);
+        return Objects.nonNull(get(key));
     }
 
     public static boolean isEmpty() {
-        return THREAD_CONTEXT.get().isEmpty();
+        SshSessionContext context = CURRENT.get();
+        if (Objects.isNull(context)) {
+            return true;
+        }
+        for (Object slot : context.slots.get()) {
+            if (Objects.nonNull(slot)) {
+                return false;
+            }
+        }
+        Map<String, Object> map = context.attributes(false);
+        return Objects.isNull(map) || map.isEmpty();
     }
 
+    /**
+     * Unbind context from current thread.
+     */
     public static void clear() {
-        THREAD_CONTEXT.remove();
-        USER_DIR_CONTEXT.remove();
+        CURRENT.remove();
     }
 
     public static void setUserDir(Supplier<File> userDirSupplier) {
-        USER_DIR_CONTEXT.set(userDirSupplier);
+        put(USER_DIR, userDirSupplier);
     }
 
     public static File getUserDir() {
-        return USER_DIR_CONTEXT.get().get();
+        return get(USER_DIR).get();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T getValue(Key<T> key) {
+        Object[] values = slots.get();
+        return key.index < values.length ? (T) values[key.index] : null;
+    }
+
+    /**
+     * Slots are copied on write. Values are put while a session or command is set up and read far more often.
+     *
+     * @param <T> type of value
+     * @param key key
+     * @param value value, null to remove
+     */
+    public <T> void putValue(Key<T> key, T value) {
+        swap(key, value);
+    }
+
+    public <T> T removeValue(Key<T> key) {
+        return swap(key, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T swap(Key<T> key, T value) {
+        while (true) {
+            Object[] values = slots.get();
+            Object previous = key.index < values.length ? values[key.index] : null;
+            if (previous == value) {
+                return (T) previous;
+            }
+            Object[] updated = Arrays.copyOf(values, Math.max(values.length, key.index + 1));
+            updated[key.index] = value;
+            if (slots.compareAndSet(values, updated)) {
+                return (T) previous;
+            }
+        }
+    }
+
+    private Map<String, Object> attributes(boolean create) {
+        Map<String, Object> map = attributes.get();
+        if (Objects.isNull(map) && create) {
+            attributes.compareAndSet(null, new ConcurrentHashMap<>());
+            map = attributes.get();
+        }
+        return map;
+    }
+
+    /**
+     * Copy of this context, e.g. for a background job whose output goes elsewhere. Values put in either context
+     * afterwards are not seen by the other, except for string keyed values which stay shared.
+     *
+     * @return copy of this context
+     */
+    public SshSessionContext copy() {
+        SshSessionContext copy = new SshSessionContext();
+        copy.slots.set(slots.get());
+        copy.attributes.set(attributes(true));
+        return copy;
+    }
+
+    /**
+     * Bind this context to the thread running task, e.g. a worker or virtual thread started by a command, for the
+     * duration of the task.
+     *
+     * @param task task
+     * @return task running with this context
+     */
+    public Runnable wrap(Runnable task) {
+        return () -> {
+            SshSessionContext previous = bind();
+            try {
+                task.run();
+            } finally {
+                unbind(previous);
+            }
+        };
+    }
+
+    public <V> Callable<V> wrap(Callable<V> task) {
+        return () -> {
+            SshSessionContext previous = bind();
+            try {
+                return task.call();
+            } finally {
+                unbind(previous);
+            }
+        };
+    }
+
+    private SshSessionContext bind() {
+        SshSessionContext previous = CURRENT.get();
+        CURRENT.set(this);
+        return previous;
+    }
+
+    private static void unbind(SshSessionContext previous) {
+        if (Objects.isNull(previous)) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Typed key of a slot in the session context. Keys are meant to be constants; each key created takes a slot in
+     * every context it is put in.
+     *
+     * @param <T> type of value
+     */
+    public static final class Key<T> {
+
+        private static final AtomicInteger SLOT_COUNT = new AtomicInteger();
+        private static final Map<String, Key<?>> KEYS_BY_NAME = new ConcurrentHashMap<>();
+        private final String name;
+        private final int index;
+
+        private Key(String name) {
+            this.name = name;
+            this.index = SLOT_COUNT.getAndIncrement();
+        }
+
+        /**
+         * @param <T> type of value
+         * @param name unique name, by which the value is also reached through string keyed methods
+         * @return key
+         */
+        public static <T> Key<T> of(String name) {
+            Key<T> key = new Key<>(name);
+            if (Objects.nonNull(KEYS_BY_NAME.putIfAbsent(name, key))) {
+                throw new IllegalArgumentException("Duplicate session context key " + name);
+            }
+            return key;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Key<Object> named(String name) {
+            return (Key<Object>) KEYS_BY_NAME.get(name);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
     }
 }
@@ -18,7 +18,9 @@
  */
 package sshd.shell.springboot.autoconfiguration;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.Collections;
@@ -37,6 +39,7 @@ import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
 import sshd.shell.springboot.ShellException;
 import sshd.shell.springboot.command.AbstractSystemCommand;
 
@@ -51,6 +54,27 @@ import sshd.shell.springboot.command.AbstractSystemCommand;
 @lombok.extern.slf4j.Slf4j
 class SshdShellAutoConfiguration {
 
+    @Autowired
+    private CommandResultCache commandResultCache;
+    @Autowired
+    private CommandRunner commandRunner;
+
+    @Bean
+    static CommandResultCache commandResultCache(SshdShellProperties properties) {
+        return new CommandResultCache(properties.getShell().getCache());
+    }
+
+    @Bean
+    static CommandAdmission commandAdmission(SshdShellProperties properties) {
+        return new CommandAdmission(properties.getShell().getCommand());
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    static CommandRunner commandRunner(SshdShellProperties properties, CommandAdmission commandAdmission) {
+        return new CommandRunner(properties.getShell().getCommand(), properties.getShell().getExecutor(),
+                commandAdmission);
+    }
+
     @Bean
     Map<String, Map<String, CommandExecutableDetails>> sshdShellCommands(ApplicationContext appContext) {
         return Collections.unmodifiableMap(sshdShellCommandsMap(appContext).entrySet().stream()
@@ -89,7 +113,7 @@ class SshdShellAutoConfiguration {
     private void loadSshdShellCommandSuppliers(Class<?> clazz, SshdShellCommand annotation,
             Map<String, CommandExecutableDetails> map, Object obj) {
         loadClassLevelCommandSupplier(clazz, annotation, map, obj);
-        loadMethodLevelCommandSupplier(clazz, map, obj);
+        loadMethodLevelCommandSupplier(clazz, annotation, map, obj);
     }
 
     private void loadClassLevelCommandSupplier(Class<?> clazz, SshdShellCommand annotation,
@@ -97,12 +121,20 @@ class SshdShellAutoConfiguration {
         log.debug("Loading class level command supplier for {}", clazz.getName());
         try {
             Method method = clazz.getDeclaredMethod(annotation.value(), String.class);
-            map.put(Constants.EXECUTE, getMethodSupplier(annotation, obj, buildCommandExecutable(method, obj)));
+            map.put(Constants.EXECUTE, getMethodSupplier(annotation, obj, decorate(annotation.value(),
+                    annotation.timeoutMillis(), buildCommandExecutable(method, obj))));
         } catch (NoSuchMethodException ex) {
             map.put(Constants.EXECUTE, getMethodSupplier(annotation, obj, null));
         }
     }
 
+    /**
+     * Cached results are looked up on the worker thread too, so that waiting for a result in flight is also timed.
+     */
+    private CommandExecutor decorate(String command, long timeoutMillis, CommandExecutor commandExecutor) {
+        return commandRunner.decorate(command, timeoutMillis, commandResultCache.decorate(command, commandExecutor));
+    }
+
     private CommandExecutableDetails getMethodSupplier(SshdShellCommand annotation, Object obj,
             CommandExecutor commandExecutor) {
         CommandExecutableDetails ced = new CommandExecutableDetails(annotation,
@@ -115,18 +147,38 @@ class SshdShellAutoConfiguration {
     }
 
     private CommandExecutor buildCommandExecutable(Method method, Object obj) {
+        boolean streaming = StreamingOutput.class.isAssignableFrom(method.getReturnType());
+        Assert.isTrue(streaming || method.getReturnType() == String.class, "Command method " + method
+                + " must return " + String.class.getName() + " or " + StreamingOutput.class.getName());
+        MethodHandle invoker = buildInvoker(method, obj);
         return arg -> {
             try {
-                return (String) method.invoke(obj, arg);
-            } catch (InvocationTargetException ex) {
-                rethrowSupportedExceptionsOnCommandExecutor(ex.getCause());
-                return printAndGetErrorInfo(ex.getCause());
-            } catch (IllegalAccessException ex) {
-                return printAndGetErrorInfo(ex);
+                Object output = (Object) invoker.invokeExact(arg);
+                return streaming && output != null
+                        ? (StreamingOutput) output
+                        : StreamingOutput.of((String) output);
+            } catch (Throwable ex) {
+                rethrowSupportedExceptionsOnCommandExecutor(ex);
+                throw new ShellException(printAndGetErrorInfo(ex), ex);
             }
         };
     }
 
+    /**
+     * Method handle bound to the command bean and adapted to (String)Object once at startup, so that invocation needs
+     * neither reflective access checks nor unwrapping of InvocationTargetException.
+     */
+    private MethodHandle buildInvoker(Method method, Object obj) {
+        Method invocableMethod = AopUtils.selectInvocableMethod(method, obj.getClass());
+        ReflectionUtils.makeAccessible(invocableMethod);
+        try {
+            return MethodHandles.lookup().unreflect(invocableMethod).bindTo(obj)
+                    .asType(MethodType.methodType(Object.class, String.class));
+        } catch (IllegalAccessException ex) {
+            throw new IllegalStateException("Unable to access command method " + method, ex);
+        }
+    }
+
     private void rethrowSupportedExceptionsOnCommandExecutor(Throwable ex) throws IllegalArgumentException,
             InterruptedException, ShellException {
         if (ex instanceof InterruptedException) {
@@ -143,13 +195,19 @@ class SshdShellAutoConfiguration {
         return "Error performing method invocation\r\nPlease check server logs for more information";
     }
 
-    private void loadMethodLevelCommandSupplier(Class<?> clazz, Map<String, CommandExecutableDetails> map, Object obj) {
+    private void loadMethodLevelCommandSupplier(Class<?> clazz, SshdShellCommand classAnnotation,
+            Map<String, CommandExecutableDetails> map, Object obj) {
         for (Method method : clazz.getDeclaredMethods()) {
             if (method.isAnnotationPresent(SshdShellCommand.class)) {
                 log.debug("{}.#{} is marked with annotation {}", clazz.getName(), method.getName(),
                         SshdShellCommand.class.getName());
                 SshdShellCommand annotation = method.getDeclaredAnnotation(SshdShellCommand.class);
-                map.put(annotation.value(), getMethodSupplier(annotation, method, buildCommandExecutable(method, obj)));
+                long timeoutMillis = annotation.timeoutMillis() < 0
+                        ? classAnnotation.timeoutMillis()
+                        : annotation.timeoutMillis();
+                map.put(annotation.value(), getMethodSupplier(annotation, method, decorate(
+                        classAnnotation.value() + '.' + annotation.value(), timeoutMillis,
+                        buildCommandExecutable(method, obj))));
             }
         }
     }
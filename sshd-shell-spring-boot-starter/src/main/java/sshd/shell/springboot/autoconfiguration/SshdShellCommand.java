@@ -48,4 +48,11 @@ public @interface SshdShellCommand {
      * @return supported roles for executing command
      */
     public String[] roles() default {"*"};
+
+    /**
+     * Timeout of command in milliseconds, 0 for none. Subcommands without timeout take the timeout of their command,
+     * and commands without one sshd.shell.command.timeout.
+     * @return timeout of command in milliseconds, -1 if not set
+     */
+    public long timeoutMillis() default -1;
 }
@@ -18,7 +18,11 @@
  */
 package sshd.shell.springboot.autoconfiguration;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 import sshd.shell.springboot.console.ColorType;
 
 /**
@@ -64,6 +68,13 @@ public class SshdShellProperties {
         private final Prompt prompt = new Prompt();
         private final Text text = new Text();
         private final Auth auth = new Auth();
+        private final Executor executor = new Executor();
+        private final Sessions sessions = new Sessions();
+        private final Io io = new Io();
+        private final Cache cache = new Cache();
+        private final Output output = new Output();
+        private final Command command = new Command();
+        private final Jobs jobs = new Jobs();
 
         @lombok.Data
         public static class Prompt {
@@ -91,5 +102,91 @@ public class SshdShellProperties {
             private AuthType authType = AuthType.SIMPLE;
             private String authProviderBeanName;
         }
+
+        @lombok.Data
+        public static class Executor {
+
+            public enum Type {
+                AUTO,
+                VIRTUAL,
+                PLATFORM
+            }
+
+            private Type type = Type.AUTO;
+            private int maxThreads = 100;
+            private int queueCapacity = 0;
+            private Duration keepAlive = Duration.ofSeconds(60);
+        }
+
+        @lombok.Data
+        public static class Sessions {
+
+            // Sessions beyond these limits are rejected, 0 for no limit
+            private int max = 0;
+            private int maxPerUser = 0;
+        }
+
+        @lombok.Data
+        public static class Io {
+
+            public enum Backend {
+                DEFAULT,
+                NIO2,
+                MINA,
+                NETTY
+            }
+
+            // Unset values fall back to Apache SSHD defaults
+            private Backend backend = Backend.DEFAULT;
+            private Integer workers;
+            private Integer backlog;
+            private Boolean tcpNoDelay;
+            private Boolean keepAlive;
+            private Boolean reuseAddress;
+            private Integer receiveBufferSize;
+            private Integer sendBufferSize;
+            private Integer readBufferSize;
+        }
+
+        @lombok.Data
+        public static class Cache {
+
+            private boolean enabled = false;
+            // Only commands with a ttl are cached. Keys are command or command.subcommand, e.g. beans, caches.list
+            private Map<String, Duration> ttl = new HashMap<>();
+            private int maxEntries = 100;
+            private DataSize maxWeight = DataSize.ofMegabytes(64);
+        }
+
+        @lombok.Data
+        public static class Output {
+
+            // Output is written to the SSH channel in chunks of at most this size, once the client has window for it
+            private DataSize chunkSize = DataSize.ofKilobytes(32);
+            private Duration windowTimeout = Duration.ofSeconds(30);
+        }
+
+        @lombok.Data
+        public static class Command {
+
+            // Commands running longer are interrupted, 0 for no timeout. Keys of timeouts are command or
+            // command.subcommand, e.g. health, caches.list, and take precedence over timeouts of annotations
+            private Duration timeout = Duration.ZERO;
+            private Map<String, Duration> timeouts = new HashMap<>();
+            // Commands with a weight, e.g. weights.heapDump=4, share permits and wait for them in order of arrival up
+            // to queue timeout. Subcommands without weight take the weight of their command. 0 permits for no limit
+            private int permits = 0;
+            private Map<String, Integer> weights = new HashMap<>();
+            private Duration queueTimeout = Duration.ofSeconds(10);
+        }
+
+        @lombok.Data
+        public static class Jobs {
+
+            // Background jobs are started with '&'. Output beyond spool threshold is written to a temporary file
+            private int maxRunning = 4;
+            private int maxPerSession = 10;
+            private DataSize spoolThreshold = DataSize.ofMegabytes(1);
+        }
     }
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.autoconfiguration;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Command output that is written to the session terminal as it is produced rather than being held in memory as a
+ * whole. Command methods annotated with {@link SshdShellCommand} may return this instead of a String.
+ *
+ * @author anand
+ */
+@FunctionalInterface
+public interface StreamingOutput {
+
+    /**
+     * Write output. The writer must not be closed.
+     *
+     * @param writer writer of session terminal
+     * @throws IOException if output cannot be written
+     */
+    void writeTo(Writer writer) throws IOException;
+
+    /**
+     * Materialize output for post processors that need it whole, e.g. mail.
+     *
+     * @return output as text
+     */
+    default String asString() {
+        StringWriter writer = new StringWriter();
+        try {
+            writeTo(writer);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return writer.toString();
+    }
+
+    static StreamingOutput of(String output) {
+        return writer -> {
+            if (output != null) {
+                writer.write(output);
+            }
+        };
+    }
+}
@@ -21,6 +21,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import sshd.shell.springboot.autoconfiguration.SshdShellCommand;
+import sshd.shell.springboot.autoconfiguration.StreamingOutput;
 import sshd.shell.springboot.util.JsonUtils;
 
 /**
@@ -40,7 +41,7 @@ public final class BeansCommand extends AbstractSystemCommand {
         this.beansEndpoint = beansEndpoint;
     }
 
-    public String beans(String arg) {
-        return JsonUtils.asJson(beansEndpoint.beans());
+    public StreamingOutput beans(String arg) {
+        return JsonUtils.asStreamingJson(beansEndpoint.beans());
     }
 }
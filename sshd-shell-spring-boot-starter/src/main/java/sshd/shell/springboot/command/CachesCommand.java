@@ -22,6 +22,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import sshd.shell.springboot.autoconfiguration.SshdShellCommand;
+import sshd.shell.springboot.autoconfiguration.StreamingOutput;
 import sshd.shell.springboot.util.JsonUtils;
 
 /**
@@ -43,8 +44,8 @@ public final class CachesCommand extends AbstractSystemCommand {
     }
 
     @SshdShellCommand(value = "list", description = "Cache info")
-    public String cacheList(String arg) {
-        return JsonUtils.asJson(cachesEndpoint.caches());
+    public StreamingOutput cacheList(String arg) {
+        return JsonUtils.asStreamingJson(cachesEndpoint.caches());
     }
 
     @SshdShellCommand(value = "show", description = "Cache info by cache and cacheManager")
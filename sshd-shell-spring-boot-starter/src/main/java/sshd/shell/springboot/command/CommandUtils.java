@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Optional;
 import org.springframework.core.io.Resource;
 import sshd.shell.springboot.autoconfiguration.SshSessionContext;
 import sshd.shell.springboot.util.ZipUtils;
@@ -37,7 +38,7 @@ public enum CommandUtils {
         return ZipUtils.zipFiles(sessionUserDir(), true, heapDumpFilePath);
     }
 
-    private static Path sessionUserDir() throws IOException {
+    static Path sessionUserDir() throws IOException {
         File sessionUserDir = SshSessionContext.getUserDir();
         if (!sessionUserDir.exists()) {
             Files.createDirectories(sessionUserDir.toPath());
@@ -45,6 +46,18 @@ public enum CommandUtils {
         return sessionUserDir.toPath();
     }
 
+    /**
+     * @return session user directory, or empty if file transfer is disabled
+     */
+    static Optional<Path> optionalSessionUserDir() {
+        try {
+            return Optional.of(sessionUserDir());
+        } catch (IllegalStateException | IOException ex) {
+            log.warn(ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
     public static String process(JsonProcessor processor) {
         try {
             return processor.process();
@@ -21,6 +21,7 @@ import org.springframework.boot.actuate.autoconfigure.endpoint.condition.Conditi
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import sshd.shell.springboot.autoconfiguration.SshdShellCommand;
+import sshd.shell.springboot.autoconfiguration.StreamingOutput;
 import sshd.shell.springboot.util.JsonUtils;
 
 /**
@@ -41,7 +42,7 @@ public final class ConditionsReportCommand extends AbstractSystemCommand {
         this.conditionsReportEndpoint = conditionsReportEndpoint;
     }
 
-    public String conditionsReport(String arg) {
-        return JsonUtils.asJson(conditionsReportEndpoint.applicationConditionEvaluation());
+    public StreamingOutput conditionsReport(String arg) {
+        return JsonUtils.asStreamingJson(conditionsReportEndpoint.applicationConditionEvaluation());
     }
 }
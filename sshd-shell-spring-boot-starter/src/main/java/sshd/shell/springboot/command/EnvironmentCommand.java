@@ -22,6 +22,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import sshd.shell.springboot.autoconfiguration.SshdShellCommand;
+import sshd.shell.springboot.autoconfiguration.StreamingOutput;
 import sshd.shell.springboot.util.JsonUtils;
 
 /**
@@ -43,8 +44,8 @@ public final class EnvironmentCommand extends AbstractSystemCommand {
     }
 
     @SshdShellCommand(value = "pattern", description = "Get environment details with given pattern")
-    public String withPattern(String arg) {
-        return JsonUtils.asJson(envEndpoint.environment(arg));
+    public StreamingOutput withPattern(String arg) {
+        return JsonUtils.asStreamingJson(envEndpoint.environment(arg));
     }
 
     @SshdShellCommand(value = "entry", description = "Get environment details with string to match")
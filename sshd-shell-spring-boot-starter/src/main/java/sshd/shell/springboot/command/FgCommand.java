@@ -0,0 +1,42 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.command;
+
+import java.util.Objects;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import sshd.shell.springboot.ShellException;
+import sshd.shell.springboot.autoconfiguration.SshdShellCommand;
+import sshd.shell.springboot.autoconfiguration.StreamingOutput;
+import sshd.shell.springboot.console.BackgroundJobs;
+
+/**
+ *
+ * @author anand
+ */
+@Component
+@lombok.NoArgsConstructor(access = lombok.AccessLevel.PACKAGE)
+@SshdShellCommand(value = "fg", description = "Attach to output of background job. Usage: fg <jobId>")
+public final class FgCommand {
+
+    @Autowired
+    private BackgroundJobs backgroundJobs;
+
+    public StreamingOutput fg(String arg) throws ShellException {
+        Integer jobId = JobsCommand.jobId(arg);
+        return Objects.isNull(jobId) ? StreamingOutput.of("Usage: fg <jobId>") : backgroundJobs.attach(jobId);
+    }
+}
@@ -21,6 +21,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import sshd.shell.springboot.autoconfiguration.SshdShellCommand;
+import sshd.shell.springboot.autoconfiguration.StreamingOutput;
 import sshd.shell.springboot.util.JsonUtils;
 
 /**
@@ -40,7 +41,7 @@ public final class FlywayCommand extends AbstractSystemCommand {
         this.flywayEndpoint = flywayEndpoint;
     }
 
-    public String flyway(String arg) {
-        return JsonUtils.asJson(flywayEndpoint.flywayBeans());
+    public StreamingOutput flyway(String arg) {
+        return JsonUtils.asStreamingJson(flywayEndpoint.flywayBeans());
     }
 }
@@ -22,6 +22,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import sshd.shell.springboot.autoconfiguration.SshdShellCommand;
+import sshd.shell.springboot.autoconfiguration.StreamingOutput;
 import sshd.shell.springboot.util.JsonUtils;
 
 /**
@@ -42,8 +43,8 @@ public final class HealthCommand extends AbstractSystemCommand {
     }
 
     @SshdShellCommand(value = "info", description = "Health info for all components")
-    public String healthInfo(String arg) {
-        return JsonUtils.asJson(healthEndpoint.health());
+    public StreamingOutput healthInfo(String arg) {
+        return JsonUtils.asStreamingJson(healthEndpoint.health());
     }
 
     @SshdShellCommand(value = "component", description = "Health for specified components")
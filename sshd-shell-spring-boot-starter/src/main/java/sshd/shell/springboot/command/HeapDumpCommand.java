@@ -16,7 +16,20 @@
 package sshd.shell.springboot.command;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.management.HeapDumpWebEndpoint;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
@@ -24,7 +37,10 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
+import sshd.shell.springboot.autoconfiguration.SshSessionContext;
 import sshd.shell.springboot.autoconfiguration.SshdShellCommand;
+import sshd.shell.springboot.util.ExecutorUtils;
+import sshd.shell.springboot.util.ZipUtils;
 
 /**
  *
@@ -37,7 +53,13 @@ import sshd.shell.springboot.autoconfiguration.SshdShellCommand;
 @lombok.extern.slf4j.Slf4j
 public final class HeapDumpCommand extends AbstractSystemCommand {
 
+    private static final long MB = 1024 * 1024;
     private final HeapDumpWebEndpoint heapDumpEndpoint;
+    // Single thread with direct hand-off, so that only one background heap dump runs at a time
+    private final ExecutorService backgroundExecutor = ExecutorUtils.newBoundedExecutor("heap-dump-", 1, 0,
+            Duration.ofMinutes(1));
+    // Last background heap dump by user, so that users see the status and file of their own dump only
+    private final Map<String, BackgroundHeapDump> lastBackgroundHeapDumps = new ConcurrentHashMap<>();
 
     HeapDumpCommand(@Value("${sshd.system.command.roles.heapDump}") String[] systemRoles,
             HeapDumpWebEndpoint heapDumpEndpoint) {
@@ -45,6 +67,11 @@ public final class HeapDumpCommand extends AbstractSystemCommand {
         this.heapDumpEndpoint = heapDumpEndpoint;
     }
 
+    @PreDestroy
+    void shutdown() {
+        backgroundExecutor.shutdownNow();
+    }
+
     @SshdShellCommand(value = "live", description = "Get heapdump with live flag")
     public String withLive(String arg) throws IOException {
         if (!StringUtils.hasText(arg)) {
@@ -59,4 +86,101 @@ public final class HeapDumpCommand extends AbstractSystemCommand {
             return "Resource can be found at " + heapDumpResource.getFile().getAbsolutePath();
         }
     }
+
+    @SshdShellCommand(value = "background", description = "Start heapdump with live flag in background")
+    public String background(String arg) {
+        if (!StringUtils.hasText(arg)) {
+            return "Usage: heapDump background <true|false>";
+        }
+        Optional<Path> userDir = CommandUtils.optionalSessionUserDir();
+        BackgroundHeapDump heapDump = new BackgroundHeapDump(Boolean.parseBoolean(arg), userDir);
+        try {
+            backgroundExecutor.execute(heapDump);
+        } catch (RejectedExecutionException ex) {
+            return "Heap dump is already in progress. Check progress with 'heapDump status'";
+        }
+        lastBackgroundHeapDumps.put(SshSessionContext.get(SshSessionContext.USER), heapDump);
+        return "Heap dump started in background. Check progress with 'heapDump status'";
+    }
+
+    @SshdShellCommand(value = "status", description = "Progress of background heapdump")
+    public String status(String arg) {
+        BackgroundHeapDump heapDump = lastBackgroundHeapDumps.get(SshSessionContext.get(SshSessionContext.USER));
+        return Objects.isNull(heapDump)
+                ? "No background heap dump started"
+                : heapDump.status();
+    }
+
+    private enum Phase {
+        STARTED,
+        DUMPING,
+        COMPRESSING,
+        COMPLETED,
+        FAILED
+    }
+
+    /**
+     * Dumps heap and compresses it with gzip straight into a part file in the user directory, which is moved to its
+     * final name once complete, so that a partial file is never downloaded with SFTP for the dump. Without SFTP the
+     * uncompressed dump is left in place.
+     */
+    @lombok.RequiredArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+    private class BackgroundHeapDump implements Runnable {
+
+        private final boolean live;
+        private final Optional<Path> userDir;
+        private final long startTime = System.nanoTime();
+        private volatile Phase phase = Phase.STARTED;
+        private volatile String result = "";
+        private volatile long totalBytes;
+        private volatile long compressedBytes;
+
+        @Override
+        public void run() {
+            try {
+                phase = Phase.DUMPING;
+                Path heapDump = Paths.get(heapDumpEndpoint.heapDump(live).getBody().getURI());
+                if (userDir.isPresent()) {
+                    compress(heapDump, userDir.get());
+                } else {
+                    result = "Resource can be found at " + heapDump.toAbsolutePath();
+                }
+                phase = Phase.COMPLETED;
+            } catch (IOException | RuntimeException ex) {
+                log.error("Error taking heap dump in background", ex);
+                result = "Error taking heap dump: " + ex.getMessage();
+                phase = Phase.FAILED;
+            }
+        }
+
+        private void compress(Path heapDump, Path dir) throws IOException {
+            Path target = dir.resolve(heapDump.getFileName() + ".gz");
+            Path part = dir.resolve(target.getFileName() + ".part");
+            totalBytes = Files.size(heapDump);
+            phase = Phase.COMPRESSING;
+            try {
+                ZipUtils.gzipFile(heapDump, part, bytes -> compressedBytes = bytes);
+                Files.move(part, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException | RuntimeException ex) {
+                Files.deleteIfExists(part);
+                throw ex;
+            }
+            result = "Resource can be downloaded with SFTP/SCP at " + target.getFileName();
+            Files.deleteIfExists(heapDump);
+        }
+
+        String status() {
+            StringBuilder sb = new StringBuilder("Heap dump ").append(phase.name().toLowerCase(Locale.ENGLISH));
+            if (phase == Phase.COMPRESSING) {
+                sb.append(' ').append(compressedBytes / MB).append(" MB of ").append(totalBytes / MB)
+                        .append(" MB (").append(totalBytes == 0 ? 100 : compressedBytes * 100 / totalBytes)
+                        .append("%)");
+            }
+            sb.append(", elapsed ").append(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startTime))
+                    .append('s');
+            return result.isEmpty()
+                    ? sb.toString()
+                    : sb.append("\r\n").append(result).toString();
+        }
+    }
 }
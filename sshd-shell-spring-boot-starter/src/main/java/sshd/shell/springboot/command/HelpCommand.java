@@ -28,6 +28,7 @@ import sshd.shell.springboot.autoconfiguration.SshSessionContext;
 import sshd.shell.springboot.autoconfiguration.SshdShellCommand;
 import sshd.shell.springboot.autoconfiguration.SshdShellProperties;
 import sshd.shell.springboot.console.BaseUserInputProcessor;
+import sshd.shell.springboot.console.PipeOperator;
 import sshd.shell.springboot.console.UsageInfo;
 
 /**
@@ -45,11 +46,13 @@ public final class HelpCommand {
     @Autowired
     private List<BaseUserInputProcessor> processors;
     @Autowired
+    private List<PipeOperator> operators;
+    @Autowired
     private SshdShellProperties properties;
 
     public String help(String arg) {
         StringBuilder sb = new StringBuilder("Supported Commands");
-        Collection<String> roles = SshSessionContext.<Collection<String>>get(Constants.USER_ROLES);
+        Collection<String> roles = SshSessionContext.get(SshSessionContext.USER_ROLES);
         String format = properties.getShell().getText().getUsageInfoFormat();
         sshdShellCommands.entrySet().stream().filter(e -> e.getValue().get(Constants.EXECUTE).matchesRole(roles))
                 .forEachOrdered(e -> sb.append(String.format(Locale.ENGLISH, format, e.getKey(),
@@ -59,6 +62,9 @@ public final class HelpCommand {
             List<UsageInfo.Row> rows = p.getUsageInfo().get().getRows();
             rows.forEach(r -> sb.append(String.format(Locale.ENGLISH, format, r.getUsage(), r.getDescription())));
         });
+        sb.append("\nSupported pipe operators for output");
+        operators.stream().flatMap(o -> o.getUsageInfo().getRows().stream()).forEachOrdered(r -> sb.append(
+                String.format(Locale.ENGLISH, format, r.getUsage(), r.getDescription())));
         return sb.toString();
     }
 }
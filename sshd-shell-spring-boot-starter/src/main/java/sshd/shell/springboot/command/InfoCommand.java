@@ -21,6 +21,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import sshd.shell.springboot.autoconfiguration.SshdShellCommand;
+import sshd.shell.springboot.autoconfiguration.StreamingOutput;
 import sshd.shell.springboot.util.JsonUtils;
 
 /**
@@ -40,7 +41,7 @@ public final class InfoCommand extends AbstractSystemCommand {
         this.infoEndpoint = infoEndpoint;
     }
 
-    public String info(String arg) {
-        return JsonUtils.asJson(infoEndpoint.info());
+    public StreamingOutput info(String arg) {
+        return JsonUtils.asStreamingJson(infoEndpoint.info());
     }
 }
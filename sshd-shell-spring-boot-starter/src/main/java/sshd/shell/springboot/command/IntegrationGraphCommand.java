@@ -21,6 +21,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import sshd.shell.springboot.autoconfiguration.SshdShellCommand;
+import sshd.shell.springboot.autoconfiguration.StreamingOutput;
 import sshd.shell.springboot.util.JsonUtils;
 
 /**
@@ -42,8 +43,8 @@ public final class IntegrationGraphCommand extends AbstractSystemCommand {
         this.integrationGraphEndpoint = integrationGraphEndpoint;
     }
 
-    public String integrationGraph(String arg) {
-        return JsonUtils.asJson(integrationGraphEndpoint.graph());
+    public StreamingOutput integrationGraph(String arg) {
+        return JsonUtils.asStreamingJson(integrationGraphEndpoint.graph());
     }
 
     @SshdShellCommand(value = "rebuild", description = "Rebuild")
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.command;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import javax.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import sshd.shell.springboot.autoconfiguration.SshdShellCommand;
+import sshd.shell.springboot.util.JsonUtils;
+
+/**
+ * Java Flight Recorder recordings. Recordings are written to the session user directory for download with SFTP/SCP.
+ *
+ * @author anand
+ */
+@Component
+@ConditionalOnClass(name = "jdk.jfr.Recording")
+@SshdShellCommand(value = "jfr", description = "Java Flight Recorder recordings")
+@lombok.extern.slf4j.Slf4j
+public final class JfrCommand extends AbstractSystemCommand {
+
+    private static final long MB = 1024 * 1024;
+    private static final Pattern NUMBER = Pattern.compile("\\d{1,18}");
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final String START_USAGE = "Usage: jfr start {\"name\":\"<name>\","
+            + "\"settings\":\"<default|profile>\",\"durationSeconds\":<0 to record until stopped>,"
+            + "\"maxSizeMB\":<0 for no limit>}";
+    // Recordings started from the shell, closed on shutdown unless stopped before
+    private final Set<Long> startedRecordings = ConcurrentHashMap.newKeySet();
+
+    JfrCommand(@Value("${sshd.system.command.roles.jfr}") String[] systemRoles) {
+        super(systemRoles);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .filter(recording -> startedRecordings.contains(recording.getId()))
+                .forEach(Recording::close);
+    }
+
+    @SshdShellCommand(value = "start", description = "Start recording")
+    public String start(String arg) {
+        return CommandUtils.process(() -> {
+            JfrStart js = StringUtils.hasText(arg) ? JsonUtils.stringToObject(arg, JfrStart.class) : new JfrStart();
+            if (js.durationSeconds < 0 || js.maxSizeMB < 0 || Configuration.getConfigurations().stream()
+                    .noneMatch(configuration -> configuration.getName().equals(js.settings))) {
+                return START_USAGE;
+            }
+            return start(js);
+        });
+    }
+
+    private String start(JfrStart js) throws IOException {
+        Recording recording;
+        try {
+            recording = new Recording(Configuration.getConfiguration(js.settings));
+        } catch (ParseException ex) {
+            log.warn("Invalid JFR settings " + js.settings, ex);
+            return "Invalid settings " + js.settings;
+        }
+        if (StringUtils.hasText(js.name)) {
+            recording.setName(js.name);
+        }
+        if (js.durationSeconds > 0) {
+            recording.setDuration(Duration.ofSeconds(js.durationSeconds));
+        }
+        if (js.maxSizeMB > 0) {
+            recording.setMaxSize(js.maxSizeMB * MB);
+        }
+        recording.setToDisk(true);
+        recording.start();
+        startedRecordings.add(recording.getId());
+        return "Recording " + recording.getId() + " started";
+    }
+
+    @SshdShellCommand(value = "stop", description = "Stop recording and write it to file")
+    public String stop(String arg) throws IOException {
+        Optional<Recording> recording = recording(arg);
+        if (!recording.isPresent()) {
+            return "Usage: jfr stop <recordingId>";
+        }
+        try {
+            if (recording.get().getState() == RecordingState.RUNNING) {
+                recording.get().stop();
+            }
+            return dump(recording.get());
+        } finally {
+            recording.get().close();
+            startedRecordings.remove(recording.get().getId());
+        }
+    }
+
+    @SshdShellCommand(value = "dump", description = "Write recording so far to file")
+    public String dump(String arg) throws IOException {
+        Optional<Recording> recording = recording(arg);
+        return recording.isPresent() ? dump(recording.get()) : "Usage: jfr dump <recordingId>";
+    }
+
+    private String dump(Recording recording) throws IOException {
+        String fileName = "recording-" + recording.getId() + '-' + FILE_TIMESTAMP.format(LocalDateTime.now())
+                + ".jfr";
+        Optional<Path> userDir = CommandUtils.optionalSessionUserDir();
+        Path target = userDir.isPresent()
+                ? userDir.get().resolve(fileName)
+                : Paths.get(System.getProperty("java.io.tmpdir"), fileName);
+        recording.dump(target);
+        return userDir.isPresent()
+                ? "Resource can be downloaded with SFTP/SCP at " + fileName
+                : "Resource can be found at " + target.toAbsolutePath();
+    }
+
+    @SshdShellCommand(value = "list", description = "List recordings")
+    public String list(String arg) {
+        String format = "%-6s %-24s %-8s %8s  %s";
+        StringBuilder sb = new StringBuilder(String.format(Locale.ENGLISH, format, "ID", "NAME", "STATE", "SIZE",
+                "DURATION"));
+        for (Recording recording : FlightRecorder.getFlightRecorder().getRecordings()) {
+            sb.append('\n').append(String.format(Locale.ENGLISH, format, recording.getId(), recording.getName(),
+                    recording.getState(), recording.getSize() / MB + " MB",
+                    Objects.isNull(recording.getDuration()) ? "until stopped" : recording.getDuration()));
+        }
+        return sb.toString();
+    }
+
+    @SshdShellCommand(value = "summary", description = "Hot methods, allocation sites and GC pauses of recording")
+    public String summary(String arg) throws IOException {
+        Optional<Recording> recording = recording(arg);
+        if (recording.isPresent()) {
+            Path file = Files.createTempFile("recording-" + recording.get().getId(), ".jfr");
+            try {
+                recording.get().dump(file);
+                return JfrSummary.summarize(file);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+        Optional<Path> file = recordingFile(arg);
+        return file.isPresent()
+                ? JfrSummary.summarize(file.get())
+                : "Usage: jfr summary <recordingId|fileName>";
+    }
+
+    private Optional<Recording> recording(String arg) {
+        if (!StringUtils.hasText(arg) || !NUMBER.matcher(arg.trim()).matches()) {
+            return Optional.empty();
+        }
+        long id = Long.parseLong(arg.trim());
+        return FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .filter(recording -> recording.getId() == id && recording.getState() != RecordingState.CLOSED)
+                .findFirst();
+    }
+
+    /**
+     * Recording file written before to the session user directory. Paths outside of it are not read.
+     */
+    private Optional<Path> recordingFile(String arg) {
+        Optional<Path> userDir = CommandUtils.optionalSessionUserDir();
+        if (!StringUtils.hasText(arg) || !userDir.isPresent()) {
+            return Optional.empty();
+        }
+        Path dir = userDir.get().normalize();
+        Path file = dir.resolve(arg.trim()).normalize();
+        return file.startsWith(dir) && Files.isRegularFile(file)
+                ? Optional.of(file)
+                : Optional.empty();
+    }
+
+    private static class JfrStart {
+
+        public String name;
+        public String settings = "default";
+        public long durationSeconds;
+        public long maxSizeMB;
+    }
+}
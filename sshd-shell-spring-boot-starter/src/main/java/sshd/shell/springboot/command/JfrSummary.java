@@ -0,0 +1,118 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.command;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Quick summary of a flight recording: methods most often on top of sampled stacks, methods allocating the most and
+ * garbage collection pauses. Events are read one at a time, so the recording is not held in memory.
+ *
+ * @author anand
+ */
+class JfrSummary {
+
+    private static final int TOP = 10;
+    private static final double MB = 1024 * 1024;
+    private final Map<String, Long> executionSamples = new HashMap<>();
+    // Allocation sample events (JDK 16+) are preferred as they are weighted to total allocation
+    private final Map<String, Long> allocationSamples = new HashMap<>();
+    private final Map<String, Long> tlabAllocations = new HashMap<>();
+    private long gcCount;
+    private Duration gcPauses = Duration.ZERO;
+    private Duration longestGcPause = Duration.ZERO;
+
+    static String summarize(Path recording) throws IOException {
+        JfrSummary summary = new JfrSummary();
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                summary.add(file.readEvent());
+            }
+        }
+        return summary.toString();
+    }
+
+    private void add(RecordedEvent event) {
+        switch (event.getEventType().getName()) {
+            case "jdk.ExecutionSample":
+                addToTopFrame(executionSamples, event, 1);
+                break;
+            case "jdk.ObjectAllocationSample":
+                addToTopFrame(allocationSamples, event, event.getLong("weight"));
+                break;
+            case "jdk.ObjectAllocationInNewTLAB":
+                addToTopFrame(tlabAllocations, event, event.getLong("tlabSize"));
+                break;
+            case "jdk.ObjectAllocationOutsideTLAB":
+                addToTopFrame(tlabAllocations, event, event.getLong("allocationSize"));
+                break;
+            case "jdk.GarbageCollection":
+                gcCount++;
+                gcPauses = gcPauses.plus(event.getDuration("sumOfPauses"));
+                Duration longestPause = event.getDuration("longestPause");
+                longestGcPause = longestPause.compareTo(longestGcPause) > 0 ? longestPause : longestGcPause;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static void addToTopFrame(Map<String, Long> counts, RecordedEvent event, long value) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (Objects.isNull(stackTrace) || stackTrace.getFrames().isEmpty()) {
+            return;
+        }
+        RecordedFrame frame = stackTrace.getFrames().get(0);
+        counts.merge(frame.getMethod().getType().getName() + '.' + frame.getMethod().getName(), value, Long::sum);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        long samples = executionSamples.values().stream().mapToLong(Long::longValue).sum();
+        sb.append("Hot methods (").append(samples).append(" execution samples)\n");
+        for (Map.Entry<String, Long> entry : top(executionSamples)) {
+            sb.append(String.format(Locale.ENGLISH, "%8d %5.1f%%  %s\n", entry.getValue(),
+                    entry.getValue() * 100.0 / samples, entry.getKey()));
+        }
+        Map<String, Long> allocations = allocationSamples.isEmpty() ? tlabAllocations : allocationSamples;
+        sb.append("Allocation sites (MB)\n");
+        for (Map.Entry<String, Long> entry : top(allocations)) {
+            sb.append(String.format(Locale.ENGLISH, "%10.1f  %s\n", entry.getValue() / MB, entry.getKey()));
+        }
+        sb.append("GC pauses: ").append(gcCount).append(" collections, total ").append(gcPauses.toMillis())
+                .append(" ms, longest ").append(longestGcPause.toMillis()).append(" ms");
+        return sb.toString();
+    }
+
+    private static List<Map.Entry<String, Long>> top(Map<String, Long> counts) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        return entries.subList(0, Math.min(TOP, entries.size()));
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.command;
+
+import java.util.Objects;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import sshd.shell.springboot.ShellException;
+import sshd.shell.springboot.autoconfiguration.SshdShellCommand;
+import sshd.shell.springboot.console.BackgroundJobs;
+
+/**
+ *
+ * @author anand
+ */
+@Component
+@lombok.NoArgsConstructor(access = lombok.AccessLevel.PACKAGE)
+@SshdShellCommand(value = "jobs", description = "Background jobs of session, started with '<command> &'")
+public final class JobsCommand {
+
+    @Autowired
+    private BackgroundJobs backgroundJobs;
+
+    public String jobs(String arg) {
+        return backgroundJobs.list();
+    }
+
+    @SshdShellCommand(value = "kill", description = "Kill background job. Usage: jobs kill <jobId>")
+    public String kill(String arg) throws ShellException {
+        Integer jobId = jobId(arg);
+        return Objects.isNull(jobId) ? "Usage: jobs kill <jobId>" : backgroundJobs.kill(jobId);
+    }
+
+    static Integer jobId(String arg) {
+        try {
+            return Objects.isNull(arg) ? null : Integer.valueOf(arg.trim());
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+}
@@ -17,13 +17,24 @@ package sshd.shell.springboot.command;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.regex.Pattern;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.logging.LogFileWebEndpoint;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 import sshd.shell.springboot.autoconfiguration.SshdShellCommand;
+import sshd.shell.springboot.autoconfiguration.StreamingOutput;
+import sshd.shell.springboot.util.GrepOptions;
+import sshd.shell.springboot.util.LogFileUtils;
 
 /**
  *
@@ -36,12 +47,22 @@ import sshd.shell.springboot.autoconfiguration.SshdShellCommand;
 @lombok.extern.slf4j.Slf4j
 public final class LogfileCommand extends AbstractSystemCommand {
 
+    private static final Pattern NUMBER = Pattern.compile("\\d{1,18}");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int DEFAULT_FOLLOW_LINES = 10;
+    private static final Duration FOLLOW_POLL_INTERVAL = Duration.ofMillis(500);
+    private static final int MAX_CONTEXT_LINES = 1000;
+    private static final String GREP_USAGE = "Usage: logfile grep [-C <contextLines>] [--from <yyyy-MM-ddTHH:mm:ss>] "
+            + "[--to <yyyy-MM-ddTHH:mm:ss>] <regex>";
     private final LogFileWebEndpoint logFileWebEndpoint;
+    private final String logDateFormat;
 
     LogfileCommand(@Value("${sshd.system.command.roles.logfile}") String[] systemRoles,
-            LogFileWebEndpoint logFileWebEndpoint) {
+            LogFileWebEndpoint logFileWebEndpoint,
+            @Value("${logging.pattern.dateformat:yyyy-MM-dd HH:mm:ss.SSS}") String logDateFormat) {
         super(systemRoles);
         this.logFileWebEndpoint = logFileWebEndpoint;
+        this.logDateFormat = logDateFormat;
     }
 
     public String logfile(String arg) throws IOException {
@@ -54,4 +75,91 @@ public final class LogfileCommand extends AbstractSystemCommand {
             return "Resource can be found at " + logFileResource.getFile().getAbsolutePath();
         }
     }
+
+    @SshdShellCommand(value = "tail", description = "Last lines of log file")
+    public StreamingOutput tail(String arg) throws IOException {
+        if (!isNumber(arg)) {
+            return StreamingOutput.of("Usage: logfile tail <numberOfLines>");
+        }
+        int lines = (int) Math.min(Long.parseLong(arg.trim()), Integer.MAX_VALUE);
+        Path logFile = logFilePath();
+        return writer -> LogFileUtils.tail(logFile, lines, writer);
+    }
+
+    /**
+     * Runs until Ctrl-C, so it has no timeout unless one is configured for logfile.follow.
+     */
+    @SshdShellCommand(value = "follow", description = "Follow log file as it grows, Ctrl-C to stop", timeoutMillis = 0)
+    public StreamingOutput follow(String arg) throws IOException {
+        if (StringUtils.hasText(arg) && !isNumber(arg)) {
+            return StreamingOutput.of("Usage: logfile follow [<numberOfLines>]");
+        }
+        int lines = StringUtils.hasText(arg)
+                ? (int) Math.min(Long.parseLong(arg.trim()), Integer.MAX_VALUE)
+                : DEFAULT_FOLLOW_LINES;
+        Path logFile = logFilePath();
+        return writer -> LogFileUtils.follow(logFile, lines, FOLLOW_POLL_INTERVAL, writer);
+    }
+
+    @SshdShellCommand(value = "range", description = "Log file content between byte offsets")
+    public StreamingOutput range(String arg) throws IOException {
+        String[] offsets = StringUtils.hasText(arg) ? WHITESPACE.split(arg.trim()) : new String[0];
+        if (offsets.length != 2 || !isNumber(offsets[0]) || !isNumber(offsets[1])
+                || Long.parseLong(offsets[0]) > Long.parseLong(offsets[1])) {
+            return StreamingOutput.of("Usage: logfile range <fromByte> <toByte>");
+        }
+        long from = Long.parseLong(offsets[0]);
+        long to = Long.parseLong(offsets[1]);
+        Path logFile = logFilePath();
+        return writer -> LogFileUtils.range(logFile, from, to, writer);
+    }
+
+    @SshdShellCommand(value = "grep", description = "Search log file for lines matching regex")
+    public StreamingOutput grep(String arg) throws IOException {
+        Optional<GrepOptions> options = parseGrepOptions(arg);
+        if (!options.isPresent()) {
+            return StreamingOutput.of(GREP_USAGE);
+        }
+        Path logFile = logFilePath();
+        return writer -> LogFileUtils.grep(logFile, options.get(), writer);
+    }
+
+    private Optional<GrepOptions> parseGrepOptions(String arg) {
+        if (!StringUtils.hasText(arg)) {
+            return Optional.empty();
+        }
+        GrepOptions.GrepOptionsBuilder builder = GrepOptions.builder()
+                .timestampFormat(DateTimeFormatter.ofPattern(logDateFormat));
+        String regex = arg.trim();
+        String[] tokens;
+        while (regex.startsWith("-") && (tokens = WHITESPACE.split(regex, 3)).length == 3) {
+            try {
+                if ("-C".equals(tokens[0]) && isNumber(tokens[1])) {
+                    builder.contextLines((int) Math.min(Long.parseLong(tokens[1]), MAX_CONTEXT_LINES));
+                } else if ("--from".equals(tokens[0])) {
+                    builder.from(LocalDateTime.parse(tokens[1]));
+                } else if ("--to".equals(tokens[0])) {
+                    builder.to(LocalDateTime.parse(tokens[1]));
+                } else {
+                    return Optional.empty();
+                }
+            } catch (DateTimeParseException ex) {
+                return Optional.empty();
+            }
+            regex = tokens[2];
+        }
+        return Optional.of(builder.pattern(Pattern.compile(regex)).build());
+    }
+
+    private static boolean isNumber(String arg) {
+        return Objects.nonNull(arg) && NUMBER.matcher(arg.trim()).matches();
+    }
+
+    private Path logFilePath() throws IOException {
+        Resource logFileResource = logFileWebEndpoint.logFile();
+        if (Objects.isNull(logFileResource)) {
+            throw new IOException("Log file is not available");
+        }
+        return logFileResource.getFile().toPath();
+    }
 }
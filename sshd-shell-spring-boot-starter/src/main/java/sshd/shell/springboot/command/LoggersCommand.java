@@ -24,6 +24,7 @@ import org.springframework.boot.logging.LogLevel;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import sshd.shell.springboot.autoconfiguration.SshdShellCommand;
+import sshd.shell.springboot.autoconfiguration.StreamingOutput;
 import sshd.shell.springboot.util.JsonUtils;
 
 /**
@@ -45,8 +46,8 @@ public final class LoggersCommand extends AbstractSystemCommand {
     }
 
     @SshdShellCommand(value = "info", description = "Show logging info")
-    public String info(String arg) {
-        return JsonUtils.asJson(loggersEndpoint.loggers());
+    public StreamingOutput info(String arg) {
+        return JsonUtils.asStreamingJson(loggersEndpoint.loggers());
     }
 
     @SshdShellCommand(value = "level", description = "Show log levels for given logger name")
@@ -21,6 +21,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import sshd.shell.springboot.autoconfiguration.SshdShellCommand;
+import sshd.shell.springboot.autoconfiguration.StreamingOutput;
 import sshd.shell.springboot.util.JsonUtils;
 
 /**
@@ -41,7 +42,7 @@ public final class MappingsCommand extends AbstractSystemCommand {
         this.mappingsEndpoint = mappingsEndpoint;
     }
 
-    public String mappings(String arg) {
-        return JsonUtils.asJson(mappingsEndpoint.mappings());
+    public StreamingOutput mappings(String arg) {
+        return JsonUtils.asStreamingJson(mappingsEndpoint.mappings());
     }
 }
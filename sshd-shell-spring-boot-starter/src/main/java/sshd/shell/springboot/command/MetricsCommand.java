@@ -17,7 +17,14 @@ package sshd.shell.springboot.command;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.metrics.MetricsEndpoint;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
@@ -25,6 +32,8 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import sshd.shell.springboot.autoconfiguration.SshdShellCommand;
+import sshd.shell.springboot.autoconfiguration.StreamingOutput;
+import sshd.shell.springboot.console.ConsoleIO;
 import sshd.shell.springboot.util.JsonUtils;
 
 /**
@@ -37,17 +46,28 @@ import sshd.shell.springboot.util.JsonUtils;
 @SshdShellCommand(value = "metrics", description = "Metrics operations")
 public final class MetricsCommand extends AbstractSystemCommand {
 
+    private static final String WATCH_USAGE = "Usage: metrics watch {\"names\":[\"<metricNames>\"],"
+            + "\"tags\":[\"<array of tags>\"],\"intervalSeconds\":<interval, default 2>,"
+            + "\"count\":<number of samples, default 0 to watch until Ctrl-C>}";
+    private static final String QUERY_USAGE = "Usage: metrics query {\"names\":[\"<metric name globs or /regex/>\"],"
+            + "\"tags\":[\"<key:value or key!:value globs>\"],\"format\":\"<TABLE|LINE>\"}";
+    static final String SCRAPE_UNAVAILABLE = "Prometheus registry is not available to scrape";
     private final MetricsEndpoint metricsEndpoint;
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<MetricsScraper> metricsScraper;
 
     MetricsCommand(@Value("${sshd.system.command.roles.metrics}") String[] systemRoles,
-            MetricsEndpoint metricsEndpoint) {
+            MetricsEndpoint metricsEndpoint, MeterRegistry meterRegistry,
+            ObjectProvider<MetricsScraper> metricsScraper) {
         super(systemRoles);
         this.metricsEndpoint = metricsEndpoint;
+        this.meterRegistry = meterRegistry;
+        this.metricsScraper = metricsScraper;
     }
 
     @SshdShellCommand(value = "listNames", description = "List names of all metrics")
-    public String listNames(String arg) {
-        return JsonUtils.asJson(metricsEndpoint.listNames());
+    public StreamingOutput listNames(String arg) {
+        return JsonUtils.asStreamingJson(metricsEndpoint.listNames());
     }
 
     @SshdShellCommand(value = "metricName", description = "List metric name")
@@ -61,6 +81,86 @@ public final class MetricsCommand extends AbstractSystemCommand {
         });
     }
 
+    @SshdShellCommand(value = "query", description = "Query metrics by name globs and tags")
+    public String query(String arg) {
+        if (!StringUtils.hasText(arg)) {
+            return QUERY_USAGE;
+        }
+        return CommandUtils.process(() -> {
+            MetricsQueryArgs mq = JsonUtils.stringToObject(arg, MetricsQueryArgs.class);
+            if (Objects.isNull(mq.names) || mq.names.isEmpty()) {
+                return QUERY_USAGE;
+            }
+            MetricsQuery query = new MetricsQuery(mq.names, mq.tags);
+            return MetricsQuery.render(query.execute(meterRegistry), mq.format);
+        });
+    }
+
+    @SshdShellCommand(value = "scrape", description = "Write all metrics in OpenMetrics text format")
+    public StreamingOutput scrape(String arg) {
+        MetricsScraper scraper = metricsScraper.getIfAvailable();
+        return Objects.isNull(scraper) ? StreamingOutput.of(SCRAPE_UNAVAILABLE) : scraper::scrape;
+    }
+
+    /**
+     * Runs until count samples are shown or Ctrl-C, so it has no timeout unless one is configured for metrics.watch.
+     */
+    @SshdShellCommand(value = "watch", description = "Watch metrics repainted in place at interval", timeoutMillis = 0)
+    public String watch(String arg) {
+        if (!StringUtils.hasText(arg)) {
+            return WATCH_USAGE;
+        }
+        return CommandUtils.process(() -> {
+            MetricsWatch mw = JsonUtils.stringToObject(arg, MetricsWatch.class);
+            if (Objects.isNull(mw.names) || mw.names.isEmpty() || mw.intervalSeconds <= 0 || mw.count < 0) {
+                return WATCH_USAGE;
+            }
+            ConsoleIO.repaintOutput(() -> sample(mw), Duration.ofSeconds(mw.intervalSeconds), mw.count);
+            return "";
+        });
+    }
+
+    private List<String> sample(MetricsWatch mw) {
+        List<String[]> rows = new ArrayList<>();
+        rows.add(new String[]{"NAME", "STATISTIC", "VALUE"});
+        for (String name : mw.names) {
+            MetricsEndpoint.MetricResponse response = metricsEndpoint.metric(name, mw.tags);
+            if (Objects.isNull(response)) {
+                rows.add(new String[]{name, "", "not found"});
+            } else {
+                response.getMeasurements().forEach(sample -> rows.add(new String[]{name,
+                    sample.getStatistic().name(), MetricsQuery.formatValue(sample.getValue())}));
+            }
+        }
+        int[] widths = new int[2];
+        rows.forEach(row -> {
+            widths[0] = Math.max(widths[0], row[0].length());
+            widths[1] = Math.max(widths[1], row[1].length());
+        });
+        String format = "%-" + widths[0] + "s  %-" + widths[1] + "s  %s";
+        List<String> lines = new ArrayList<>(rows.size() + 1);
+        lines.add("Every " + mw.intervalSeconds + "s: " + LocalTime.now().truncatedTo(ChronoUnit.SECONDS));
+        rows.forEach(row -> lines.add(String.format(format, (Object[]) row)));
+        return lines;
+    }
+
+    private static class MetricsQueryArgs {
+
+        @JsonProperty(required = true)
+        public List<String> names;
+        public List<String> tags;
+        public MetricsQuery.Format format = MetricsQuery.Format.TABLE;
+    }
+
+    private static class MetricsWatch {
+
+        @JsonProperty(required = true)
+        public List<String> names;
+        public List<String> tags;
+        public int intervalSeconds = 2;
+        public int count;
+    }
+
     private static class MetricTags {
 
         @JsonProperty(required = true)
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.command;
+
+import io.micrometer.core.instrument.Measurement;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Query of meters by name and tags, resolved in one pass over the registry.
+ *
+ * <p>
+ * Names are globs (e.g. {@code jvm.memory.*}) or regular expressions between slashes (e.g. {@code /http\..+/}). Tags
+ * are predicates {@code key:value} or {@code key!:value}, where value is a glob.
+ *
+ * @author anand
+ */
+class MetricsQuery {
+
+    enum Format {
+        TABLE,
+        LINE
+    }
+
+    private final List<Pattern> namePatterns;
+    private final List<TagPredicate> tagPredicates;
+
+    MetricsQuery(List<String> names, List<String> tags) {
+        this.namePatterns = names.stream().map(MetricsQuery::toPattern).collect(Collectors.toList());
+        this.tagPredicates = Objects.isNull(tags)
+                ? Collections.emptyList()
+                : tags.stream().map(TagPredicate::new).collect(Collectors.toList());
+    }
+
+    private static Pattern toPattern(String expression) {
+        return expression.length() > 1 && expression.startsWith("/") && expression.endsWith("/")
+                ? Pattern.compile(expression.substring(1, expression.length() - 1))
+                : globToPattern(expression);
+    }
+
+    private static Pattern globToPattern(String glob) {
+        StringBuilder regex = new StringBuilder();
+        int literalStart = 0;
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*' || c == '?') {
+                if (i > literalStart) {
+                    regex.append(Pattern.quote(glob.substring(literalStart, i)));
+                }
+                regex.append(c == '*' ? ".*" : ".");
+                literalStart = i + 1;
+            }
+        }
+        if (literalStart < glob.length()) {
+            regex.append(Pattern.quote(glob.substring(literalStart)));
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    /**
+     * Measurements of matching meters, sorted by name and tags.
+     */
+    List<Row> execute(MeterRegistry registry) {
+        List<Row> rows = new ArrayList<>();
+        registry.forEachMeter(meter -> {
+            if (matches(meter.getId())) {
+                rows.add(new Row(meter.getId(), meter.measure()));
+            }
+        });
+        rows.sort(Comparator.comparing((Row row) -> row.id.getName()).thenComparing(row -> row.tags));
+        return rows;
+    }
+
+    private boolean matches(Meter.Id id) {
+        return namePatterns.stream().anyMatch(pattern -> pattern.matcher(id.getName()).matches())
+                && tagPredicates.stream().allMatch(predicate -> predicate.test(id));
+    }
+
+    static String render(List<Row> rows, Format format) {
+        return format == Format.LINE
+                ? renderLines(rows, TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis()))
+                : renderTable(rows);
+    }
+
+    private static String renderTable(List<Row> rows) {
+        List<String[]> cells = new ArrayList<>();
+        cells.add(new String[]{"NAME", "TAGS", "STATISTIC", "VALUE"});
+        for (Row row : rows) {
+            for (Measurement measurement : row.measurements) {
+                cells.add(new String[]{row.id.getName(), row.tags, measurement.getStatistic().name(),
+                    formatValue(measurement.getValue())});
+            }
+        }
+        int[] widths = new int[3];
+        for (String[] cell : cells) {
+            for (int i = 0; i < widths.length; i++) {
+                widths[i] = Math.max(widths[i], cell[i].length());
+            }
+        }
+        String format = "%-" + widths[0] + "s  %-" + widths[1] + "s  %-" + widths[2] + "s  %s";
+        return cells.stream().map(cell -> String.format(Locale.ENGLISH, format, (Object[]) cell))
+                .collect(Collectors.joining("\n"));
+    }
+
+    /**
+     * Influx line protocol, one line per meter with a field per statistic.
+     */
+    private static String renderLines(List<Row> rows, long timestampNanos) {
+        StringBuilder sb = new StringBuilder();
+        for (Row row : rows) {
+            if (sb.length() > 0) {
+                sb.append('\n');
+            }
+            sb.append(escape(row.id.getName(), false));
+            for (Tag tag : row.id.getTags()) {
+                sb.append(',').append(escape(tag.getKey(), true)).append('=').append(escape(tag.getValue(), true));
+            }
+            char separator = ' ';
+            for (Measurement measurement : row.measurements) {
+                sb.append(separator).append(measurement.getStatistic().getTagValueRepresentation()).append('=')
+                        .append(formatValue(measurement.getValue()));
+                separator = ',';
+            }
+            sb.append(' ').append(timestampNanos);
+        }
+        return sb.toString();
+    }
+
+    private static String escape(String value, boolean isTag) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (c == ',' || c == ' ' || (isTag && c == '=')) {
+                sb.append('\\');
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    static String formatValue(double value) {
+        return Double.isFinite(value)
+                ? BigDecimal.valueOf(value).setScale(3, RoundingMode.HALF_UP).stripTrailingZeros().toPlainString()
+                : String.valueOf(value);
+    }
+
+    static class Row {
+
+        private final Meter.Id id;
+        private final String tags;
+        private final List<Measurement> measurements = new ArrayList<>();
+
+        private Row(Meter.Id id, Iterable<Measurement> measurements) {
+            this.id = id;
+            this.tags = id.getTags().stream().map(tag -> tag.getKey() + '=' + tag.getValue())
+                    .collect(Collectors.joining(","));
+            measurements.forEach(this.measurements::add);
+        }
+    }
+
+    private static class TagPredicate {
+
+        private final String key;
+        private final Pattern value;
+        private final boolean negated;
+
+        private TagPredicate(String predicate) {
+            int index = predicate.indexOf(':');
+            if (index <= 0) {
+                throw new IllegalArgumentException("Tag predicate must be key:value or key!:value, was " + predicate);
+            }
+            this.negated = predicate.charAt(index - 1) == '!';
+            this.key = predicate.substring(0, negated ? index - 1 : index);
+            this.value = globToPattern(predicate.substring(index + 1));
+        }
+
+        private boolean test(Meter.Id id) {
+            String tagValue = id.getTag(key);
+            boolean matches = Objects.nonNull(tagValue) && value.matcher(tagValue).matches();
+            return matches != negated;
+        }
+    }
+}
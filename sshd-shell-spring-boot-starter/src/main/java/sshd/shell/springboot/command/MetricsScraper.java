@@ -0,0 +1,33 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.command;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes all metrics in a text exposition format that collectors scrape.
+ *
+ * @author anand
+ */
+interface MetricsScraper {
+
+    /**
+     * @param writer writer of session, which buffers output
+     * @throws IOException if metrics cannot be written
+     */
+    void scrape(Writer writer) throws IOException;
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.command;
+
+import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.exporter.common.TextFormat;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Objects;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes the OpenMetrics exposition of the collector registry that spring boot actuator binds the prometheus meter
+ * registry to. Samples are written family by family straight to the session writer, without holding the exposition
+ * in memory.
+ *
+ * @author anand
+ */
+@Component
+@ConditionalOnClass(name = "io.prometheus.client.exporter.common.TextFormat")
+class PrometheusMetricsScraper implements MetricsScraper {
+
+    // Registry is resolved per scrape as prometheus export auto configuration may run after component scan
+    private final ObjectProvider<CollectorRegistry> collectorRegistry;
+
+    PrometheusMetricsScraper(ObjectProvider<CollectorRegistry> collectorRegistry) {
+        this.collectorRegistry = collectorRegistry;
+    }
+
+    @Override
+    public void scrape(Writer writer) throws IOException {
+        CollectorRegistry registry = collectorRegistry.getIfAvailable();
+        if (Objects.isNull(registry)) {
+            writer.write(MetricsCommand.SCRAPE_UNAVAILABLE);
+        } else {
+            TextFormat.writeOpenMetrics100(writer, registry.metricFamilySamples());
+        }
+    }
+}
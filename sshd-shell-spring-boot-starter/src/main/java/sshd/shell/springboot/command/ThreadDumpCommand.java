@@ -15,12 +15,19 @@
  */
 package sshd.shell.springboot.command;
 
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Pattern;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.management.ThreadDumpEndpoint;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 import sshd.shell.springboot.autoconfiguration.SshdShellCommand;
+import sshd.shell.springboot.autoconfiguration.StreamingOutput;
 import sshd.shell.springboot.util.JsonUtils;
 
 /**
@@ -33,6 +40,12 @@ import sshd.shell.springboot.util.JsonUtils;
 @SshdShellCommand(value = "threadDump", description = "Print thread dump")
 public final class ThreadDumpCommand extends AbstractSystemCommand {
 
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern NUMBER = Pattern.compile("\\d{1,9}");
+    private static final int MAX_SAMPLES = 100_000;
+    private static final String SAMPLE_USAGE = "Usage: threadDump sample <count> <intervalMs>";
+    private static final String TEXT_USAGE = "Usage: threadDump text [--state <NEW|RUNNABLE|BLOCKED|WAITING|"
+            + "TIMED_WAITING|TERMINATED>] [--name-regex <regex>] [--deadlocked] [--top-cpu <numberOfThreads>]";
     private final ThreadDumpEndpoint threadDumpEndpoint;
 
     ThreadDumpCommand(@Value("${sshd.system.command.roles.threadDump}") String[] systemRoles,
@@ -41,7 +54,57 @@ public final class ThreadDumpCommand extends AbstractSystemCommand {
         this.threadDumpEndpoint = threadDumpEndpoint;
     }
 
-    public String threadDump(String arg) {
-        return JsonUtils.asJson(threadDumpEndpoint.threadDump());
+    public StreamingOutput threadDump(String arg) {
+        return JsonUtils.asStreamingJson(threadDumpEndpoint.threadDump());
+    }
+
+    @SshdShellCommand(value = "sample", description = "Sample stacks of runnable threads, Ctrl-C to stop early")
+    public StreamingOutput sample(String arg) {
+        String[] tokens = StringUtils.hasText(arg) ? WHITESPACE.split(arg.trim()) : new String[0];
+        if (tokens.length != 2 || !NUMBER.matcher(tokens[0]).matches() || !NUMBER.matcher(tokens[1]).matches()) {
+            return StreamingOutput.of(SAMPLE_USAGE);
+        }
+        int count = Integer.parseInt(tokens[0]);
+        int intervalMillis = Integer.parseInt(tokens[1]);
+        if (count == 0 || count > MAX_SAMPLES || intervalMillis == 0) {
+            return StreamingOutput.of(SAMPLE_USAGE);
+        }
+        return writer -> new ThreadSampler(ManagementFactory.getThreadMXBean())
+                .sample(count, Duration.ofMillis(intervalMillis), writer);
+    }
+
+    @SshdShellCommand(value = "text", description = "Print thread dump as text like jstack, optionally filtered")
+    public StreamingOutput text(String arg) {
+        Optional<ThreadDumpWriter> threadDumpWriter = parseTextOptions(arg);
+        if (!threadDumpWriter.isPresent()) {
+            return StreamingOutput.of(TEXT_USAGE);
+        }
+        return threadDumpWriter.get()::write;
+    }
+
+    private Optional<ThreadDumpWriter> parseTextOptions(String arg) {
+        ThreadDumpWriter.ThreadDumpWriterBuilder builder = ThreadDumpWriter.builder()
+                .threadMXBean(ManagementFactory.getThreadMXBean());
+        String[] tokens = StringUtils.hasText(arg) ? WHITESPACE.split(arg.trim()) : new String[0];
+        try {
+            for (int i = 0; i < tokens.length; i++) {
+                if ("--deadlocked".equals(tokens[i])) {
+                    builder.deadlocked(true);
+                } else if (i + 1 == tokens.length) {
+                    return Optional.empty();
+                } else if ("--state".equals(tokens[i])) {
+                    builder.state(Thread.State.valueOf(tokens[++i].toUpperCase(Locale.ENGLISH)));
+                } else if ("--name-regex".equals(tokens[i])) {
+                    builder.namePattern(Pattern.compile(tokens[++i]));
+                } else if ("--top-cpu".equals(tokens[i]) && NUMBER.matcher(tokens[i + 1]).matches()) {
+                    builder.topCpu(Integer.parseInt(tokens[++i]));
+                } else {
+                    return Optional.empty();
+                }
+            }
+        } catch (IllegalArgumentException ex) { // Invalid state or regex
+            return Optional.empty();
+        }
+        return Optional.of(builder.build());
     }
 }
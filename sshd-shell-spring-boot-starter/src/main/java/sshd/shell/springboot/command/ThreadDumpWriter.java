@@ -0,0 +1,187 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.command;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.LockInfo;
+import java.lang.management.MonitorInfo;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * Plain text thread dump in the style of jstack. Threads are filtered on their id, name and state, which are cheap to
+ * get, before stack traces and locks are fetched and written batch by batch, so only the threads selected are paid
+ * for.
+ *
+ * @author anand
+ */
+@lombok.Builder(access = lombok.AccessLevel.PACKAGE)
+class ThreadDumpWriter {
+
+    private static final int BATCH_SIZE = 64;
+    private final ThreadMXBean threadMXBean;
+    /**
+     * If set, only threads in this state are written.
+     */
+    private final Thread.State state;
+    /**
+     * If set, only threads with names containing a match are written.
+     */
+    private final Pattern namePattern;
+    /**
+     * Whether only threads deadlocked on monitors or ownable synchronizers are written.
+     */
+    private final boolean deadlocked;
+    /**
+     * If above 0, only this number of threads that used the most CPU time are written, in that order.
+     */
+    private final int topCpu;
+
+    void write(Writer writer) throws IOException {
+        long[] ids = selectThreadIds();
+        if (topCpu > 0) {
+            if (!isCpuTimeEnabled()) {
+                writer.write("Thread CPU time is not supported or enabled\n");
+                return;
+            }
+            ids = selectTopCpuThreadIds(ids);
+        }
+        writer.write("Thread dump of " + ids.length + " threads\n\n");
+        StringBuilder sb = new StringBuilder(1024);
+        for (int from = 0; from < ids.length; from += BATCH_SIZE) {
+            long[] batch = Arrays.copyOfRange(ids, from, Math.min(ids.length, from + BATCH_SIZE));
+            for (ThreadInfo info : threadMXBean.getThreadInfo(batch, threadMXBean.isObjectMonitorUsageSupported(),
+                    threadMXBean.isSynchronizerUsageSupported())) {
+                // Thread may have ended since it was selected
+                if (Objects.nonNull(info)) {
+                    sb.setLength(0);
+                    append(info, sb);
+                    writer.append(sb);
+                }
+            }
+            writer.flush();
+        }
+    }
+
+    private long[] selectThreadIds() {
+        long[] ids = deadlocked ? threadMXBean.findDeadlockedThreads() : threadMXBean.getAllThreadIds();
+        if (Objects.isNull(ids)) {
+            return new long[0];
+        }
+        if (Objects.isNull(state) && Objects.isNull(namePattern)) {
+            return ids;
+        }
+        return Arrays.stream(threadMXBean.getThreadInfo(ids, 0))
+                .filter(this::isSelected)
+                .mapToLong(ThreadInfo::getThreadId).toArray();
+    }
+
+    /**
+     * CPU times are read once before sorting, as they change while threads run and are -1 once threads have ended.
+     */
+    private long[] selectTopCpuThreadIds(long[] ids) {
+        long[] cpuTimes = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            cpuTimes[i] = threadMXBean.getThreadCpuTime(ids[i]);
+        }
+        return IntStream.range(0, ids.length).boxed()
+                .filter(i -> cpuTimes[i] >= 0)
+                .sorted((i, j) -> Long.compare(cpuTimes[j], cpuTimes[i]))
+                .limit(topCpu).mapToLong(i -> ids[i]).toArray();
+    }
+
+    private boolean isSelected(ThreadInfo info) {
+        return Objects.nonNull(info)
+                && (Objects.isNull(state) || info.getThreadState() == state)
+                && (Objects.isNull(namePattern) || namePattern.matcher(info.getThreadName()).find());
+    }
+
+    private boolean isCpuTimeEnabled() {
+        return threadMXBean.isThreadCpuTimeSupported() && threadMXBean.isThreadCpuTimeEnabled();
+    }
+
+    private void append(ThreadInfo info, StringBuilder sb) {
+        sb.append('"').append(info.getThreadName()).append("\" #").append(info.getThreadId()).append(' ')
+                .append(info.getThreadState());
+        long cpuTime = isCpuTimeEnabled() ? threadMXBean.getThreadCpuTime(info.getThreadId()) : -1;
+        if (cpuTime >= 0) {
+            sb.append(" cpu=").append(TimeUnit.NANOSECONDS.toMillis(cpuTime)).append("ms");
+        }
+        if (info.isSuspended()) {
+            sb.append(" (suspended)");
+        }
+        if (info.isInNative()) {
+            sb.append(" (in native)");
+        }
+        sb.append('\n');
+        StackTraceElement[] stackTrace = info.getStackTrace();
+        for (int depth = 0; depth < stackTrace.length; depth++) {
+            appendFrame(stackTrace[depth], sb);
+            if (depth == 0) {
+                appendLock(info, sb);
+            }
+            for (MonitorInfo monitor : info.getLockedMonitors()) {
+                if (monitor.getLockedStackDepth() == depth) {
+                    sb.append("\t- locked ").append(monitor).append('\n');
+                }
+            }
+        }
+        LockInfo[] synchronizers = info.getLockedSynchronizers();
+        if (synchronizers.length > 0) {
+            sb.append("\n\tLocked synchronizers:\n");
+            for (LockInfo synchronizer : synchronizers) {
+                sb.append("\t- ").append(synchronizer).append('\n');
+            }
+        }
+        sb.append('\n');
+    }
+
+    /**
+     * Frames are written without the class loader and module prefixes of {@link StackTraceElement#toString()}.
+     */
+    private static void appendFrame(StackTraceElement frame, StringBuilder sb) {
+        sb.append("\tat ").append(frame.getClassName()).append('.').append(frame.getMethodName()).append('(');
+        if (frame.isNativeMethod()) {
+            sb.append("Native Method");
+        } else if (Objects.isNull(frame.getFileName())) {
+            sb.append("Unknown Source");
+        } else {
+            sb.append(frame.getFileName());
+            if (frame.getLineNumber() >= 0) {
+                sb.append(':').append(frame.getLineNumber());
+            }
+        }
+        sb.append(")\n");
+    }
+
+    private static void appendLock(ThreadInfo info, StringBuilder sb) {
+        if (Objects.isNull(info.getLockInfo())) {
+            return;
+        }
+        sb.append(info.getThreadState() == Thread.State.BLOCKED ? "\t- blocked on " : "\t- waiting on ")
+                .append(info.getLockInfo());
+        if (Objects.nonNull(info.getLockOwnerName())) {
+            sb.append(" owned by \"").append(info.getLockOwnerName()).append("\" #").append(info.getLockOwnerId());
+        }
+        sb.append('\n');
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.command;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Poor man's profiler. Stacks of runnable threads are sampled at interval and identical stacks counted, which is
+ * written in the collapsed stack format of flame graph tools: frames from root to leaf separated by semicolons,
+ * followed by the number of samples. CPU time used by each thread between the first and last sample follows.
+ *
+ * @author anand
+ */
+@lombok.RequiredArgsConstructor(access = lombok.AccessLevel.PACKAGE)
+class ThreadSampler {
+
+    private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+    private final ThreadMXBean threadMXBean;
+    private final Map<String, Integer> stackCounts = new HashMap<>();
+    private final Map<Long, ThreadCpu> threadCpus = new HashMap<>();
+    private int samples;
+
+    /**
+     * Sampling stops early on interrupt, e.g. Ctrl-C, and the samples taken so far are written.
+     */
+    void sample(int count, Duration interval, Writer writer) throws IOException {
+        boolean interrupted = false;
+        long start = System.nanoTime();
+        for (int i = 0; i < count && !interrupted; i++) {
+            if (i > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(interval.toNanos());
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                    continue;
+                }
+            }
+            takeSample();
+        }
+        write(Duration.ofNanos(System.nanoTime() - start), writer);
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void takeSample() {
+        long self = Thread.currentThread().getId();
+        boolean cpuTimeEnabled = isCpuTimeEnabled();
+        for (ThreadInfo info : threadMXBean.dumpAllThreads(false, false)) {
+            if (Objects.isNull(info) || info.getThreadId() == self) {
+                continue;
+            }
+            if (info.getThreadState() == Thread.State.RUNNABLE && info.getStackTrace().length > 0) {
+                stackCounts.merge(collapse(info.getStackTrace()), 1, Integer::sum);
+            }
+            if (cpuTimeEnabled) {
+                updateCpu(info);
+            }
+        }
+        samples++;
+    }
+
+    private boolean isCpuTimeEnabled() {
+        return threadMXBean.isThreadCpuTimeSupported() && threadMXBean.isThreadCpuTimeEnabled();
+    }
+
+    private static String collapse(StackTraceElement[] stackTrace) {
+        StringBuilder sb = new StringBuilder(stackTrace.length * 48);
+        for (int i = stackTrace.length - 1; i >= 0; i--) {
+            sb.append(stackTrace[i].getClassName()).append('.').append(stackTrace[i].getMethodName());
+            if (i > 0) {
+                sb.append(';');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Threads started after the first sample are measured from the time they are first seen.
+     */
+    private void updateCpu(ThreadInfo info) {
+        long cpuTime = threadMXBean.getThreadCpuTime(info.getThreadId());
+        if (cpuTime < 0) {
+            return;
+        }
+        threadCpus.computeIfAbsent(info.getThreadId(), id -> new ThreadCpu(info.getThreadName(), cpuTime))
+                .last = cpuTime;
+    }
+
+    private void write(Duration elapsed, Writer writer) throws IOException {
+        writer.write("# " + samples + " samples of runnable threads in " + elapsed.toMillis() + " ms\n");
+        List<Map.Entry<String, Integer>> stacks = new ArrayList<>(stackCounts.entrySet());
+        stacks.sort(Map.Entry.<String, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+        for (Map.Entry<String, Integer> stack : stacks) {
+            writer.write(stack.getKey());
+            writer.write(' ');
+            writer.write(String.valueOf(stack.getValue()));
+            writer.write('\n');
+        }
+        writer.write("# CPU ms per thread\n");
+        if (!isCpuTimeEnabled()) {
+            writer.write("Thread CPU time is not supported or enabled\n");
+            return;
+        }
+        List<ThreadCpu> threads = new ArrayList<>(threadCpus.values());
+        threads.sort(Comparator.comparingLong(ThreadCpu::delta).reversed().thenComparing(cpu -> cpu.name));
+        for (ThreadCpu threadCpu : threads) {
+            if (threadCpu.delta() >= NANOS_PER_MILLI) {
+                writer.write(threadCpu.delta() / NANOS_PER_MILLI + "\t" + threadCpu.name + "\n");
+            }
+        }
+    }
+
+    private static class ThreadCpu {
+
+        private final String name;
+        private final long first;
+        private long last;
+
+        private ThreadCpu(String name, long first) {
+            this.name = name;
+            this.first = first;
+            this.last = first;
+        }
+
+        private long delta() {
+            return last - first;
+        }
+    }
+}
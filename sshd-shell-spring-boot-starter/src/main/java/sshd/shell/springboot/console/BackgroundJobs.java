@@ -0,0 +1,234 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.console;
+
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import sshd.shell.springboot.ShellException;
+import sshd.shell.springboot.autoconfiguration.SshSessionContext;
+import sshd.shell.springboot.autoconfiguration.SshSessionContext.Key;
+import sshd.shell.springboot.autoconfiguration.SshdShellProperties.Shell.Jobs;
+import sshd.shell.springboot.autoconfiguration.StreamingOutput;
+import sshd.shell.springboot.util.Assert;
+import sshd.shell.springboot.util.ExecutorUtils;
+
+/**
+ * Commands of a session run in the background, e.g. 'heapDump live &amp;'. Jobs run on a bounded pool without
+ * terminal, like exec mode, and their output is spooled until it is attached to with 'fg'. Jobs belong to the session
+ * that started them and are cancelled when it ends.
+ *
+ * @author anand
+ */
+@lombok.extern.slf4j.Slf4j
+public class BackgroundJobs {
+
+    private static final Key<SessionJobs> SESSION_JOBS = Key.of("__sessionJobs");
+    private final Jobs props;
+    private final ThreadPoolExecutor executor;
+
+    BackgroundJobs(Jobs props, Duration keepAlive) {
+        this.props = props;
+        this.executor = ExecutorUtils.newBoundedExecutor("ssh-job-", props.getMaxRunning(), 0, keepAlive);
+    }
+
+    @FunctionalInterface
+    interface JobTask {
+
+        void run() throws InterruptedException, ShellException;
+    }
+
+    /**
+     * Start job in background with a copy of the session context writing to the spool of the job.
+     *
+     * @param command command input of job
+     * @param task runs command
+     * @return job id
+     * @throws ShellException if too many jobs are kept by session or running
+     */
+    int start(String command, JobTask task) throws ShellException {
+        SessionJobs sessionJobs = sessionJobs();
+        Assert.isTrue(sessionJobs.jobs.size() < props.getMaxPerSession(),
+                "Too many background jobs. Attach to finished ones with 'fg <jobId>' or kill with 'jobs kill <jobId>'");
+        Job job = new Job(sessionJobs.nextId.incrementAndGet(), command,
+                new Spool(props.getSpoolThreshold().toBytes()));
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(job.spool, StandardCharsets.UTF_8));
+        SshSessionContext jobContext = SshSessionContext.current().copy();
+        jobContext.removeValue(ConsoleIO.TERMINAL);
+        jobContext.removeValue(ConsoleIO.LINE_READER);
+        jobContext.putValue(ConsoleIO.EXEC_WRITER, writer);
+        sessionJobs.jobs.put(job.id, job);
+        try {
+            job.future = executor.submit(jobContext.wrap(() -> run(job, task, writer)));
+        } catch (RejectedExecutionException ex) {
+            sessionJobs.jobs.remove(job.id);
+            job.spool.delete();
+            throw new ShellException("Too many background jobs running, please try again later");
+        }
+        return job.id;
+    }
+
+    private void run(Job job, JobTask task, PrintWriter writer) {
+        Status status = Status.FAILED;
+        try {
+            task.run();
+            status = Status.DONE;
+        } catch (InterruptedException ex) {
+            status = Status.KILLED;
+        } catch (ShellException | IllegalArgumentException ex) {
+            ConsoleIO.writeOutput(ex.getMessage());
+        } catch (RuntimeException ex) {
+            log.error("Error running background job {}", job.command, ex);
+        } finally {
+            writer.flush();
+            job.endNanos = System.nanoTime();
+            job.status = status; // Before spool is closed, so that whoever reads output to the end sees the status
+            writer.close();
+        }
+    }
+
+    /**
+     * @return jobs of session with status, elapsed time and size of output
+     */
+    public String list() {
+        Map<Integer, Job> jobs = sessionJobs().jobs;
+        if (jobs.isEmpty()) {
+            return "No background jobs";
+        }
+        StringBuilder sb = new StringBuilder();
+        long now = System.nanoTime();
+        jobs.values().forEach(job -> sb.append(sb.length() == 0 ? "" : "\n").append(String.format(Locale.ENGLISH,
+                "[%d] %-8s %9.1fs %10d bytes%s  %s", job.id, job.status, job.elapsedSeconds(now), job.spool.size(),
+                job.spool.isSpooledToFile() ? " (spooled)" : "", job.command)));
+        return sb.toString();
+    }
+
+    /**
+     * Output of job from the start, followed until the job ends. Once all of it is written, the job is removed.
+     * Ctrl-C stops following and leaves the job running.
+     *
+     * @param jobId job id
+     * @return output of job
+     * @throws ShellException if there is no such job
+     */
+    public StreamingOutput attach(int jobId) throws ShellException {
+        Job job = getJob(jobId);
+        return writer -> {
+            char[] buffer = new char[8192];
+            try (Reader reader = new InputStreamReader(job.spool.newInputStream(), StandardCharsets.UTF_8)) {
+                for (int read; (read = reader.read(buffer)) >= 0;) {
+                    writer.write(buffer, 0, read);
+                    if (!reader.ready()) {
+                        writer.flush();
+                    }
+                }
+            }
+            writer.write("[" + job.id + "] " + job.status + "  " + job.command);
+            remove(job);
+        };
+    }
+
+    /**
+     * Kill job by interrupting it and remove it with its output.
+     *
+     * @param jobId job id
+     * @return message
+     * @throws ShellException if there is no such job
+     */
+    public String kill(int jobId) throws ShellException {
+        Job job = getJob(jobId);
+        job.future.cancel(true);
+        remove(job);
+        return "[" + job.id + "] Killed  " + job.command;
+    }
+
+    /**
+     * Kill all jobs of session, called when session ends.
+     */
+    void killAll() {
+        sessionJobs().jobs.values().forEach(job -> {
+            job.future.cancel(true);
+            remove(job);
+        });
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Job getJob(int jobId) throws ShellException {
+        Job job = sessionJobs().jobs.get(jobId);
+        Assert.isNotNull(job, "No such job " + jobId);
+        return job;
+    }
+
+    private void remove(Job job) {
+        sessionJobs().jobs.remove(job.id, job);
+        job.spool.delete();
+    }
+
+    private SessionJobs sessionJobs() {
+        SshSessionContext context = SshSessionContext.current();
+        SessionJobs sessionJobs = context.getValue(SESSION_JOBS);
+        if (Objects.isNull(sessionJobs)) {
+            sessionJobs = new SessionJobs();
+            context.putValue(SESSION_JOBS, sessionJobs);
+        }
+        return sessionJobs;
+    }
+
+    private enum Status {
+        RUNNING,
+        DONE,
+        FAILED,
+        KILLED
+    }
+
+    private static class SessionJobs {
+
+        private final Map<Integer, Job> jobs = new ConcurrentSkipListMap<>();
+        private final AtomicInteger nextId = new AtomicInteger();
+    }
+
+    @lombok.RequiredArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+    private static class Job {
+
+        private final int id;
+        private final String command;
+        private final Spool spool;
+        private final long startNanos = System.nanoTime();
+        private volatile Status status = Status.RUNNING;
+        private volatile long endNanos;
+        private Future<?> future;
+
+        private double elapsedSeconds(long now) {
+            return (status == Status.RUNNING ? now - startNanos : endNanos - startNanos)
+                    / (double) TimeUnit.SECONDS.toNanos(1);
+        }
+    }
+}
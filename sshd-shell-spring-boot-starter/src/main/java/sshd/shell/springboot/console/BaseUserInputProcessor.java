@@ -16,10 +16,13 @@
 package sshd.shell.springboot.console;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
@@ -28,6 +31,7 @@ import sshd.shell.springboot.autoconfiguration.CommandExecutableDetails;
 import sshd.shell.springboot.autoconfiguration.Constants;
 import sshd.shell.springboot.autoconfiguration.SshSessionContext;
 import sshd.shell.springboot.autoconfiguration.SshdShellProperties;
+import sshd.shell.springboot.autoconfiguration.StreamingOutput;
 import sshd.shell.springboot.util.Assert;
 
 /**
@@ -41,14 +45,52 @@ public abstract class BaseUserInputProcessor {
     private Map<String, Map<String, CommandExecutableDetails>> commandMap;
     @Autowired
     private SshdShellProperties props;
+    @Autowired
+    private Pipeline pipeline;
 
     public abstract Optional<UsageInfo> getUsageInfo();
 
+    /**
+     * Pattern of user input handled by this processor. For processors with a {@link #getSymbol() symbol}, it is
+     * matched against the trimmed input after the last pipe only, with the argument of the symbol, if any, as group 1.
+     *
+     * @return pattern
+     */
     public abstract Pattern getPattern();
 
+    /**
+     * Symbol after the last pipe of user input that selects this processor, e.g. 'h' for 'help | h exit'. Processors
+     * with a symbol are dispatched by lookup of the symbol, all others by matching {@link #getPattern()} in order.
+     *
+     * @return symbol of post processor if any
+     */
+    public Optional<String> getSymbol() {
+        return Optional.empty();
+    }
+
     public abstract void processUserInput(String userInput) throws InterruptedException, ShellException;
 
     protected final String processCommands(String userInput) throws InterruptedException, ShellException {
+        return streamCommands(userInput).asString();
+    }
+
+    /**
+     * Execute command without materializing its output so that it can be written to the terminal as it is produced.
+     * Command may be followed by pipe operators, e.g. 'beans | grep Controller | head 5', through which its output is
+     * piped line by line. Pipes within quotes or escaped are not operators, see {@link PipeSplitter}.
+     *
+     * @param userInput command input
+     * @return output of command
+     * @throws InterruptedException if interrupted
+     * @throws ShellException on invalid command
+     */
+    protected final StreamingOutput streamCommands(String userInput) throws InterruptedException, ShellException {
+        List<String> stages = PipeSplitter.split(userInput);
+        UnaryOperator<StreamingOutput> pipe = pipeline.compile(stages.subList(1, stages.size()));
+        return pipe.apply(streamCommand(stages.get(0)));
+    }
+
+    private StreamingOutput streamCommand(String userInput) throws InterruptedException, ShellException {
         String[] inputTokens = userInput.trim().split(" ", 3); // Three parts: command, subcommand, arg
         String command = inputTokens[0];
         Collection<String> userRoles = getValidatedUserRolesForCommand(command);
@@ -64,8 +106,44 @@ public abstract class BaseUserInputProcessor {
         return tokens;
     }
 
+    /**
+     * Split user input at the last pipe into the command, which may itself be piped, and the post processor input.
+     * Pipes within quotes or escaped are not split at, see {@link PipeSplitter}.
+     *
+     * @param userInput user input
+     * @return command and post processor input, the latter without quotes
+     * @throws ShellException if there is no command before the pipe
+     */
+    protected final String[] splitAtLastPipe(String userInput) throws ShellException {
+        int pipeIndex = PipeSplitter.lastPipeIndex(userInput);
+        Assert.isTrue(pipeIndex > 0, "Invalid command");
+        return new String[]{userInput.substring(0, pipeIndex),
+            PipeSplitter.unquote(userInput.substring(pipeIndex + 1))};
+    }
+
+    /**
+     * @param postProcessorInput input after the last pipe
+     * @return argument of symbol, null if symbol takes none
+     * @throws ShellException if input is not handled by this processor
+     */
+    protected final String getSymbolArgument(String postProcessorInput) throws ShellException {
+        Optional<Matcher> matcher = matchPostProcessorInput(postProcessorInput);
+        Assert.isTrue(matcher.isPresent(), "Invalid command");
+        return matcher.get().groupCount() > 0 && Objects.nonNull(matcher.get().group(1))
+                ? matcher.get().group(1).trim()
+                : null;
+    }
+
+    /**
+     * Shared by the dispatcher and {@link #getSymbolArgument(String)} so that both accept the same input.
+     */
+    final Optional<Matcher> matchPostProcessorInput(String postProcessorInput) {
+        Matcher matcher = getPattern().matcher(postProcessorInput.trim());
+        return matcher.matches() ? Optional.of(matcher) : Optional.empty();
+    }
+
     private Collection<String> getValidatedUserRolesForCommand(String command) throws ShellException {
-        Collection<String> userRoles = SshSessionContext.<Collection<String>>get(Constants.USER_ROLES);
+        Collection<String> userRoles = SshSessionContext.get(SshSessionContext.USER_ROLES);
         CommandExecutableDetails ced = getExecutableForCommand(command);
         Assert.isTrue(ced.matchesRole(userRoles), "Permission denied");
         return userRoles;
@@ -77,12 +155,12 @@ public abstract class BaseUserInputProcessor {
         return commandExecutables.get(Constants.EXECUTE);
     }
 
-    private String handleCommandOnlyUserInput(String command, Collection<String> userRoles) throws
+    private StreamingOutput handleCommandOnlyUserInput(String command, Collection<String> userRoles) throws
             InterruptedException, ShellException {
         CommandExecutableDetails ced = commandMap.get(command).get(Constants.EXECUTE);
         return Objects.isNull(ced.getCommandExecutor())
-                ? unknownSubcommandMessage(command, userRoles)
-                : ced.executeWithArg(null);
+                ? StreamingOutput.of(unknownSubcommandMessage(command, userRoles))
+                : ced.streamWithArg(null);
     }
 
     private String unknownSubcommandMessage(String command, Collection<String> userRoles) {
@@ -94,13 +172,13 @@ public abstract class BaseUserInputProcessor {
         return sb.toString();
     }
 
-    private String handleUserInputWithMoreTokens(String[] tokens, Collection<String> userRoles)
+    private StreamingOutput handleUserInputWithMoreTokens(String[] tokens, Collection<String> userRoles)
             throws InterruptedException, ShellException {
         String command = tokens[0];
         String subCommand = tokens[1];
         CommandExecutableDetails ced = getSubCommand(command, subCommand);
         Assert.isTrue(ced.matchesRole(userRoles), "Permission denied");
-        return ced.executeWithArg(getArgument(tokens));
+        return ced.streamWithArg(getArgument(tokens));
     }
 
     private CommandExecutableDetails getSubCommand(String command, String subCommand) throws ShellException {
@@ -39,9 +39,16 @@ class ConsoleConfiguration {
     @Bean
     TerminalProcessor terminalProcessor(SshdShellProperties properties,
                                         Map<String, Map<String, CommandExecutableDetails>> sshdShellCommands,
-                                        List<BaseUserInputProcessor> userInputProcessors) {
+                                        List<BaseUserInputProcessor> userInputProcessors,
+                                        BackgroundJobs backgroundJobs) {
         return new TerminalProcessor(properties.getShell(),
-                new Completers.TreeCompleter(buildTextCompleters(sshdShellCommands)), userInputProcessors);
+                new Completers.TreeCompleter(buildTextCompleters(sshdShellCommands)), userInputProcessors,
+                backgroundJobs);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    BackgroundJobs backgroundJobs(SshdShellProperties properties) {
+        return new BackgroundJobs(properties.getShell().getJobs(), properties.getShell().getExecutor().getKeepAlive());
     }
 
     private List<Node> buildTextCompleters(Map<String, Map<String, CommandExecutableDetails>> sshdShellCommands) {
@@ -15,12 +15,33 @@
  */
 package sshd.shell.springboot.console;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 import org.jline.reader.LineReader;
+import org.jline.reader.UserInterruptException;
+import org.jline.terminal.Attributes;
+import org.jline.terminal.Size;
 import org.jline.terminal.Terminal;
+import org.jline.utils.AttributedString;
 import org.jline.utils.AttributedStringBuilder;
 import org.jline.utils.AttributedStyle;
+import org.jline.utils.Display;
+import org.jline.utils.InfoCmp;
+import sshd.shell.springboot.ShellException;
 import sshd.shell.springboot.autoconfiguration.SshSessionContext;
+import sshd.shell.springboot.autoconfiguration.SshSessionContext.Key;
+import sshd.shell.springboot.autoconfiguration.StreamingOutput;
 import sshd.shell.springboot.util.JsonUtils;
 
 /**
@@ -31,10 +52,17 @@ import sshd.shell.springboot.util.JsonUtils;
 public enum ConsoleIO {
     ;
 
-    static final String LINE_READER = "__lineReader";
-    static final String TEXT_STYLE = "__textStyle";
-    static final String TERMINAL = "__terminal";
-    static final String HIGHLIGHT_COLOR = "__highlightColor";
+    static final Key<LineReader> LINE_READER = Key.of("__lineReader");
+    static final Key<AttributedStyle> TEXT_STYLE = Key.of("__textStyle");
+    static final Key<Terminal> TERMINAL = Key.of("__terminal");
+    static final Key<AttributedStyle> HIGHLIGHT_COLOR = Key.of("__highlightColor");
+    static final Key<PrintWriter> EXEC_WRITER = Key.of("__execWriter");
+    static final Key<Boolean> OUTPUT_FAILED = Key.of("__outputFailed");
+    private static final int BUFFER_SIZE = 8192;
+    private static final int DEFAULT_ROWS = 24;
+    private static final int DEFAULT_COLUMNS = 80;
+    static final String COMMAND_CANCELLED = "Command cancelled";
+    private static final String MORE_PROMPT = "--More-- (space: next page, enter: next line, q: quit)";
 
     /**
      * Read input from line with mask. Use null if input is to be echoed. Use 0 if nothing is to be echoed and other
@@ -45,16 +73,24 @@ public enum ConsoleIO {
      * @return input from user
      */
     public static String readInput(String text, Character mask) {
-        LineReader reader = SshSessionContext.<LineReader>get(LINE_READER);
-        AttributedStyle textStyle = SshSessionContext.<AttributedStyle>get(TEXT_STYLE);
-        Terminal terminal = SshSessionContext.<Terminal>get(TERMINAL);
+        SshSessionContext context = SshSessionContext.current();
+        LineReader reader = context.getValue(LINE_READER);
+        if (Objects.isNull(reader)) {
+            throw new IllegalArgumentException("Interactive input is not supported in exec mode");
+        }
+        AttributedStyle textStyle = context.getValue(TEXT_STYLE);
+        Terminal terminal = context.getValue(TERMINAL);
         String prompt = new AttributedStringBuilder()
                 .style(textStyle)
                 .append(text)
                 .append(' ')
                 .style(AttributedStyle.DEFAULT)
                 .toAnsi(terminal);
-        return reader.readLine(prompt, mask);
+        try {
+            return reader.readLine(prompt, mask);
+        } catch (UserInterruptException ex) {
+            throw new IllegalArgumentException(COMMAND_CANCELLED, ex);
+        }
     }
 
     /**
@@ -83,28 +119,211 @@ public enum ConsoleIO {
      * @param textToHighlight text to highlight
      */
     public static void writeOutput(String output, String textToHighlight) {
-        Terminal terminal = SshSessionContext.<Terminal>get(TERMINAL);
-        AttributedStringBuilder builder = new AttributedStringBuilder()
-                .style(SshSessionContext.<AttributedStyle>get(TEXT_STYLE));
+        Terminal terminal = SshSessionContext.get(TERMINAL);
+        if (Objects.isNull(terminal)) {
+            writeOutput(StreamingOutput.of(output));
+            return;
+        }
+        AttributedStringBuilder builder;
         if (Objects.isNull(textToHighlight)) {
-            builder.append(output);
+            builder = new AttributedStringBuilder()
+                    .style(SshSessionContext.get(TEXT_STYLE))
+                    .append(output);
         } else {
-            addHighlightedTextToBuilder(output, textToHighlight, builder);
+            Highlighter highlighter = Highlighter.of(textToHighlight);
+            builder = new AttributedStringBuilder(output.length()).style(highlighter.getTextStyle());
+            highlighter.highlight(output, 0, output.length(), true, builder);
         }
         terminal.writer().println(builder.style(AttributedStyle.DEFAULT).toAnsi(terminal));
         terminal.flush();
     }
 
-    private static void addHighlightedTextToBuilder(String output, String textToHighlight,
-            AttributedStringBuilder builder) {
-        String[] split = output.split(textToHighlight);
-        for (int i = 0; i < split.length - 1; i++) {
-            builder.append(split[i])
-                    .style(SshSessionContext.<AttributedStyle>get(HIGHLIGHT_COLOR))
-                    .append(textToHighlight)
-                    .style(SshSessionContext.<AttributedStyle>get(TEXT_STYLE));
+    /**
+     * Write output as it is produced by command. On a terminal, Ctrl-C interrupts the writing thread so that
+     * unbounded output (e.g. following a log file) can be stopped.
+     *
+     * @param output streaming output
+     */
+    public static void writeOutput(StreamingOutput output) {
+        writeOutput(output, null);
+    }
+
+    /**
+     * Write highlighted output as it is produced by command. Output is highlighted chunk by chunk, holding back only
+     * the end of a chunk that may be continued by a match in the next one.
+     *
+     * @param output streaming output
+     * @param textToHighlight text to highlight
+     */
+    public static void writeOutput(StreamingOutput output, String textToHighlight) {
+        Terminal terminal = SshSessionContext.get(TERMINAL);
+        PrintWriter printWriter = Objects.isNull(terminal)
+                ? SshSessionContext.get(EXEC_WRITER)
+                : terminal.writer();
+        writeOutput(output, terminal, printWriter, stopped -> Objects.isNull(terminal)
+                || Objects.isNull(textToHighlight)
+                        ? new SessionWriter(printWriter, chunkStyler(terminal))
+                        : new HighlightingSessionWriter(printWriter, terminal, Highlighter.of(textToHighlight)));
+    }
+
+    /**
+     * Write output a screen at a time, like more. After each screen the command waits until the user asks for the
+     * next screen (space), the next line (enter) or quits (q), so only one screen of output is held. Without terminal,
+     * as in exec mode, output is written in full.
+     *
+     * @param output streaming output
+     */
+    public static void pageOutput(StreamingOutput output) {
+        Terminal terminal = SshSessionContext.get(TERMINAL);
+        if (Objects.isNull(terminal)) {
+            writeOutput(output);
+            return;
+        }
+        Attributes attributes = terminal.enterRawMode();
+        try {
+            writeOutput(output, terminal, terminal.writer(),
+                    stopped -> new PagingSessionWriter(terminal, chunkStyler(terminal), stopped));
+        } finally {
+            terminal.setAttributes(attributes);
+        }
+    }
+
+    private static void writeOutput(StreamingOutput output, Terminal terminal, PrintWriter printWriter,
+            Function<AtomicBoolean, Writer> sessionWriterFactory) {
+        AtomicBoolean interrupted = new AtomicBoolean();
+        Terminal.SignalHandler previousHandler = handleInterrupt(terminal, interrupted);
+        Writer sessionWriter = sessionWriterFactory.apply(interrupted);
+        boolean failed = false;
+        try (Writer writer = new BufferedWriter(sessionWriter, BUFFER_SIZE)) {
+            output.writeTo(writer);
+        } catch (IOException | RuntimeException ex) {
+            if (!interrupted.get()) {
+                failed = true;
+                SshSessionContext.put(OUTPUT_FAILED, Boolean.TRUE);
+                printWriter.println();
+                printWriter.print(getErrorMessage(ex));
+            }
+        } finally {
+            if (Objects.nonNull(previousHandler)) {
+                terminal.handle(Terminal.Signal.INT, previousHandler);
+            }
+            if (interrupted.get()) {
+                Thread.interrupted(); // Interrupt was meant for the output only, not the session
+            }
+        }
+        // Raw output of exec mode already ending with a line break, e.g. OpenMetrics text, is written exactly
+        if (Objects.nonNull(terminal) || failed || !(sessionWriter instanceof SessionWriter)
+                || !((SessionWriter) sessionWriter).lineEnded) {
+            printWriter.println();
+        }
+        printWriter.flush();
+    }
+
+    /**
+     * Messages of ShellException and IllegalArgumentException are meant for the user, as they are when thrown before
+     * output is written. They may reach here wrapped, e.g. in an IOException by a pipe operator.
+     */
+    private static String getErrorMessage(Throwable ex) {
+        for (Throwable cause = ex; Objects.nonNull(cause); cause = cause.getCause()) {
+            if (cause instanceof ShellException || cause instanceof IllegalArgumentException) {
+                return cause.getMessage();
+            }
+        }
+        log.error("Error writing command output", ex);
+        return "Error writing command output\r\nPlease check server logs for more information";
+    }
+
+    /**
+     * Repaint sampled lines in place until count samples are written or Ctrl-C. Only the changes between samples are
+     * sent to the terminal. Without terminal, as in exec mode, each sample is written in full.
+     *
+     * @param sampler produces lines of a sample
+     * @param interval interval between samples
+     * @param count number of samples, 0 to sample until interrupted
+     */
+    public static void repaintOutput(Supplier<List<String>> sampler, Duration interval, int count) {
+        Terminal terminal = SshSessionContext.get(TERMINAL);
+        if (Objects.isNull(terminal)) {
+            writeOutput(writer -> {
+                for (int sample = 1; sample == 1 || sleep(interval); sample++) {
+                    for (String line : sampler.get()) {
+                        writer.write(line);
+                        writer.write('\n');
+                    }
+                    writer.flush();
+                    if (sample == count) {
+                        break;
+                    }
+                }
+            });
+            return;
+        }
+        AtomicBoolean interrupted = new AtomicBoolean();
+        Terminal.SignalHandler previousHandler = handleInterrupt(terminal, interrupted);
+        try {
+            repaint(terminal, sampler, interval, count);
+        } finally {
+            terminal.handle(Terminal.Signal.INT, previousHandler);
+            if (interrupted.get()) {
+                Thread.interrupted(); // Interrupt was meant for the output only, not the session
+            }
+        }
+        terminal.writer().println();
+        terminal.flush();
+    }
+
+    private static void repaint(Terminal terminal, Supplier<List<String>> sampler, Duration interval, int count) {
+        Size size = terminal.getSize();
+        int rows = size.getRows() > 0 ? size.getRows() : DEFAULT_ROWS;
+        int columns = size.getColumns() > 0 ? size.getColumns() : DEFAULT_COLUMNS;
+        Display display = new Display(terminal, false);
+        display.resize(rows, columns);
+        AttributedStyle textStyle = SshSessionContext.get(TEXT_STYLE);
+        for (int sample = 1; sample == 1 || sleep(interval); sample++) {
+            // Lines are cut to terminal width so that they do not wrap and the cursor ends on the last line
+            List<AttributedString> lines = sampler.get().stream()
+                    .limit(rows - 1L)
+                    .map(line -> new AttributedString(line.length() < columns ? line : line.substring(0, columns - 1),
+                            textStyle))
+                    .collect(Collectors.toList());
+            display.update(lines, lines.isEmpty()
+                    ? 0
+                    : (lines.size() - 1) * columns + lines.get(lines.size() - 1).columnLength());
+            if (sample == count) {
+                break;
+            }
+        }
+    }
+
+    private static boolean sleep(Duration duration) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(duration.toMillis());
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    static Terminal.SignalHandler handleInterrupt(Terminal terminal, AtomicBoolean interrupted) {
+        if (Objects.isNull(terminal)) {
+            return null;
         }
-        builder.append(split[split.length - 1]);
+        Thread thread = Thread.currentThread();
+        return terminal.handle(Terminal.Signal.INT, signal -> {
+            interrupted.set(true);
+            thread.interrupt();
+        });
+    }
+
+    /**
+     * Output of exec mode has no terminal and is written raw.
+     */
+    private static UnaryOperator<String> chunkStyler(Terminal terminal) {
+        AttributedStyle textStyle = SshSessionContext.get(TEXT_STYLE);
+        return Objects.isNull(terminal) || AttributedStyle.DEFAULT.equals(textStyle)
+                ? UnaryOperator.identity()
+                : chunk -> new AttributedString(chunk, textStyle).toAnsi(terminal);
     }
 
     public static void writeJsonOutput(Object object) {
@@ -114,4 +333,150 @@ public enum ConsoleIO {
     public static void writeJsonOutput(Object object, String textToHighlight) {
         writeOutput(JsonUtils.asJson(object), textToHighlight);
     }
+
+    /**
+     * Styles each chunk written to the session and flushes it so that output appears as it is produced. Closing this
+     * writer does not close the session writer.
+     */
+    @lombok.RequiredArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+    private static class SessionWriter extends Writer {
+
+        private final PrintWriter writer;
+        private final UnaryOperator<String> styler;
+        private boolean lineEnded;
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            if (len > 0) {
+                writer.write(styler.apply(new String(cbuf, off, len)));
+                lineEnded = cbuf[off + len - 1] == '\n';
+            }
+        }
+
+        @Override
+        public void flush() {
+            writer.flush();
+        }
+
+        @Override
+        public void close() {
+            flush();
+        }
+    }
+
+    /**
+     * Highlights chunks written to the session. Text that may be part of a match continued by the next chunk is kept
+     * until that chunk is written or the writer is closed.
+     */
+    @lombok.RequiredArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+    private static class HighlightingSessionWriter extends Writer {
+
+        private final PrintWriter writer;
+        private final Terminal terminal;
+        private final Highlighter highlighter;
+        private final StringBuilder pending = new StringBuilder();
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            pending.append(cbuf, off, len);
+            writeHighlighted(false);
+        }
+
+        private void writeHighlighted(boolean last) {
+            AttributedStringBuilder builder = new AttributedStringBuilder(pending.length())
+                    .style(highlighter.getTextStyle());
+            int appended = highlighter.highlight(pending, 0, pending.length(), last, builder);
+            if (appended > 0) {
+                writer.write(builder.toAnsi(terminal));
+                pending.delete(0, appended);
+            }
+        }
+
+        @Override
+        public void flush() {
+            writer.flush();
+        }
+
+        @Override
+        public void close() {
+            writeHighlighted(true);
+            flush();
+        }
+    }
+
+    /**
+     * Stops after each screen of output until the user asks for more. Lines longer than the terminal width are
+     * counted as the number of rows they wrap to. Once the user quits, nothing more is written, as the buffered writer
+     * in front retries its buffer on close.
+     */
+    private static class PagingSessionWriter extends Writer {
+
+        private final Terminal terminal;
+        private final PrintWriter writer;
+        private final UnaryOperator<String> styler;
+        private final AtomicBoolean stopped;
+        private final int rows;
+        private final int columns;
+        private int rowsShown;
+        private int column;
+
+        PagingSessionWriter(Terminal terminal, UnaryOperator<String> styler, AtomicBoolean stopped) {
+            this.terminal = terminal;
+            this.writer = terminal.writer();
+            this.styler = styler;
+            this.stopped = stopped;
+            Size size = terminal.getSize();
+            this.rows = size.getRows() > 1 ? size.getRows() : DEFAULT_ROWS;
+            this.columns = size.getColumns() > 0 ? size.getColumns() : DEFAULT_COLUMNS;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            if (stopped.get()) {
+                return;
+            }
+            int start = off;
+            for (int i = off; i < off + len; i++) {
+                if (cbuf[i] == '\n' || ++column == columns) {
+                    column = 0;
+                    if (++rowsShown == rows - 1) {
+                        writer.write(styler.apply(new String(cbuf, start, i + 1 - start)));
+                        start = i + 1;
+                        waitForMore();
+                    }
+                }
+            }
+            if (start < off + len) {
+                writer.write(styler.apply(new String(cbuf, start, off + len - start)));
+            }
+        }
+
+        private void waitForMore() throws IOException {
+            writer.write(new AttributedString(MORE_PROMPT, AttributedStyle.INVERSE).toAnsi(terminal));
+            writer.flush();
+            int key = terminal.reader().read();
+            terminal.puts(InfoCmp.Capability.carriage_return);
+            terminal.puts(InfoCmp.Capability.clr_eol);
+            if (key == ' ') {
+                rowsShown = 0;
+            } else if (key == '\r' || key == '\n') {
+                rowsShown--;
+            } else {
+                stopped.set(true);
+                throw new IOException("Paging stopped");
+            }
+        }
+
+        @Override
+        public void flush() {
+            if (!stopped.get()) {
+                writer.flush();
+            }
+        }
+
+        @Override
+        public void close() {
+            flush();
+        }
+    }
 }
@@ -20,7 +20,6 @@ import java.util.regex.Pattern;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import sshd.shell.springboot.ShellException;
-import sshd.shell.springboot.util.Assert;
 
 /**
  *
@@ -30,7 +29,7 @@ import sshd.shell.springboot.util.Assert;
 @Order(Integer.MAX_VALUE)
 class DefaultUserInputProcessor extends BaseUserInputProcessor {
 
-    private final String[] bannedSymbols = {"|"};
+    private final Pattern pattern = Pattern.compile(".+");
 
     @Override
     public Optional<UsageInfo> getUsageInfo() {
@@ -39,14 +38,11 @@ class DefaultUserInputProcessor extends BaseUserInputProcessor {
 
     @Override
     public Pattern getPattern() {
-        return Pattern.compile(".+");
+        return pattern;
     }
 
     @Override
     public void processUserInput(String userInput) throws InterruptedException, ShellException {
-        for (String bannedSymbol : bannedSymbols) {
-            Assert.isTrue(!userInput.contains(bannedSymbol), "Invalid command");
-        }
-        ConsoleIO.writeOutput(processCommands(userInput));
+        ConsoleIO.writeOutput(streamCommands(userInput));
     }
 }
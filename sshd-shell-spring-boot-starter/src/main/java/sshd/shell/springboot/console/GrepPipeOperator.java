@@ -0,0 +1,93 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.console;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import sshd.shell.springboot.ShellException;
+import sshd.shell.springboot.console.UsageInfo.Row;
+import sshd.shell.springboot.util.Assert;
+
+/**
+ *
+ * @author anand
+ */
+@Component
+@Order(1)
+class GrepPipeOperator implements PipeOperator {
+
+    private static final String USAGE = "Usage: grep [-v] [-i] <regex>";
+
+    @Override
+    public String getSymbol() {
+        return "grep";
+    }
+
+    @Override
+    public UsageInfo getUsageInfo() {
+        return new UsageInfo(Arrays.<Row>asList(
+                new Row("grep [-v] [-i] <regex>", "Lines matching <regex>, -v not matching, -i ignoring case"),
+                new Row("", "Example usage: beans | grep Controller | head 5")));
+    }
+
+    @Override
+    public Stage open(String arg, Stage downstream) throws ShellException {
+        Assert.isNotNull(arg, USAGE);
+        String regex = arg;
+        boolean invert = false;
+        int flags = 0;
+        for (boolean option = true; option;) {
+            if (regex.startsWith("-v ")) {
+                invert = true;
+            } else if (regex.startsWith("-i ")) {
+                flags = Pattern.CASE_INSENSITIVE;
+            } else {
+                option = false;
+            }
+            regex = option ? regex.substring(3).trim() : regex;
+        }
+        Matcher matcher;
+        try {
+            matcher = Pattern.compile(regex, flags).matcher("");
+        } catch (PatternSyntaxException ex) {
+            throw new ShellException(USAGE, ex);
+        }
+        return new GrepStage(matcher, invert, downstream);
+    }
+
+    @lombok.AllArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+    private static class GrepStage implements Stage {
+
+        private final Matcher matcher;
+        private final boolean invert;
+        private final Stage downstream;
+
+        @Override
+        public boolean accept(String line) throws IOException {
+            return matcher.reset(line).find() == invert || downstream.accept(line);
+        }
+
+        @Override
+        public void end() throws IOException {
+            downstream.end();
+        }
+    }
+}
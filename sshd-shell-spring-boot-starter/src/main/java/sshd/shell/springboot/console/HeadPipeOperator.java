@@ -0,0 +1,69 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.console;
+
+import java.io.IOException;
+import java.util.Arrays;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import sshd.shell.springboot.ShellException;
+import sshd.shell.springboot.console.UsageInfo.Row;
+
+/**
+ *
+ * @author anand
+ */
+@Component
+@Order(2)
+class HeadPipeOperator implements PipeOperator {
+
+    @Override
+    public String getSymbol() {
+        return "head";
+    }
+
+    @Override
+    public UsageInfo getUsageInfo() {
+        return new UsageInfo(Arrays.<Row>asList(new Row("head [<n>]", "First <n> lines, 10 by default")));
+    }
+
+    @Override
+    public Stage open(String arg, Stage downstream) throws ShellException {
+        return new HeadStage(PipeOperators.lineCount(arg, "Usage: head [<n>]"), downstream);
+    }
+
+    @lombok.RequiredArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+    private static class HeadStage implements Stage {
+
+        private final int lines;
+        private final Stage downstream;
+        private int passed;
+
+        @Override
+        public boolean accept(String line) throws IOException {
+            if (passed == lines) {
+                return false;
+            }
+            passed++;
+            return downstream.accept(line) && passed < lines;
+        }
+
+        @Override
+        public void end() throws IOException {
+            downstream.end();
+        }
+    }
+}
@@ -17,13 +17,11 @@ package sshd.shell.springboot.console;
 
 import java.util.Arrays;
 import java.util.Optional;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import sshd.shell.springboot.ShellException;
 import sshd.shell.springboot.console.UsageInfo.Row;
-import sshd.shell.springboot.util.Assert;
 
 /**
  *
@@ -33,7 +31,7 @@ import sshd.shell.springboot.util.Assert;
 @Order(1)
 class HighlightUserInputProcessor extends BaseUserInputProcessor {
 
-    private final Pattern pattern = Pattern.compile(".+\\s?\\|\\s?h (.+)");
+    private final Pattern pattern = Pattern.compile("h\\s+(.+)");
 
     @Override
     public Optional<UsageInfo> getUsageInfo() {
@@ -48,17 +46,15 @@ class HighlightUserInputProcessor extends BaseUserInputProcessor {
     }
 
     @Override
-    public void processUserInput(String userInput) throws InterruptedException, ShellException {
-        String textToHighlight = getHighlightedText(userInput);
-        String[] tokens = splitAndValidateCommand(userInput, "\\|", 2);
-        String commandExecution = tokens[0];
-        String output = processCommands(commandExecution);
-        ConsoleIO.writeOutput(output, textToHighlight);
+    public Optional<String> getSymbol() {
+        return Optional.of("h");
     }
 
-    private String getHighlightedText(String userInput) throws ShellException {
-        Matcher matcher = pattern.matcher(userInput);
-        Assert.isTrue(matcher.find(), "Unexpected error");
-        return matcher.group(1).trim();
+    @Override
+    public void processUserInput(String userInput) throws InterruptedException, ShellException {
+        String[] tokens = splitAtLastPipe(userInput);
+        String textToHighlight = getSymbolArgument(tokens[1]);
+        String commandExecution = tokens[0];
+        ConsoleIO.writeOutput(streamCommands(commandExecution), textToHighlight);
     }
 }
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.console;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.jline.utils.AttributedStringBuilder;
+import org.jline.utils.AttributedStyle;
+import sshd.shell.springboot.autoconfiguration.SshSessionContext;
+
+/**
+ * Highlights text in command output. Text between slashes, e.g. '/WARN.*ms/', is a regex matched within lines, any
+ * other text is matched literally. Output is scanned once and text between matches is appended to the builder as is.
+ *
+ * @author anand
+ */
+class Highlighter {
+
+    private final String literal;
+    private final Matcher matcher;
+    private final AttributedStyle textStyle;
+    private final AttributedStyle highlightStyle;
+
+    Highlighter(String textToHighlight, AttributedStyle textStyle, AttributedStyle highlightStyle) {
+        boolean regex = textToHighlight.length() > 2 && textToHighlight.startsWith("/")
+                && textToHighlight.endsWith("/");
+        this.literal = regex ? null : textToHighlight;
+        this.matcher = regex
+                ? Pattern.compile(textToHighlight.substring(1, textToHighlight.length() - 1)).matcher("")
+                : null;
+        this.textStyle = textStyle;
+        this.highlightStyle = highlightStyle;
+    }
+
+    /**
+     * @param textToHighlight literal text or regex between slashes
+     * @return highlighter with text and highlight styles of session
+     */
+    static Highlighter of(String textToHighlight) {
+        return new Highlighter(textToHighlight, SshSessionContext.get(ConsoleIO.TEXT_STYLE),
+                SshSessionContext.get(ConsoleIO.HIGHLIGHT_COLOR));
+    }
+
+    AttributedStyle getTextStyle() {
+        return textStyle;
+    }
+
+    /**
+     * Append text between start and end to builder with matches highlighted. Unless last, text at the end that may be
+     * part of a match continued by further output is not appended, and has to be passed again with that output.
+     *
+     * @param text output
+     * @param start start index
+     * @param end end index
+     * @param last whether no further output follows
+     * @param builder builder with text style
+     * @return index up to which text was appended
+     */
+    int highlight(CharSequence text, int start, int end, boolean last, AttributedStringBuilder builder) {
+        int heldBack = last ? 0 : heldBack(text, start, end);
+        return matcher == null
+                ? highlightLiteral(text, start, end, heldBack, builder)
+                : highlightRegex(text, start, end - heldBack, builder);
+    }
+
+    /**
+     * A literal match continued by the next chunk starts within its length from the end, and within the last line
+     * unless the literal contains a line break. Regex matches are only looked for in complete lines.
+     */
+    private int heldBack(CharSequence text, int start, int end) {
+        int max = matcher == null ? Math.min(literal.length() - 1, end - start) : end - start;
+        if (matcher == null && literal.indexOf('\n') >= 0) {
+            return Math.max(0, max);
+        }
+        int heldBack = 0;
+        while (heldBack < max && text.charAt(end - heldBack - 1) != '\n') {
+            heldBack++;
+        }
+        return heldBack;
+    }
+
+    private int highlightLiteral(CharSequence text, int start, int end, int heldBack,
+            AttributedStringBuilder builder) {
+        int from = start;
+        for (int match = indexOf(text, from, end); match >= 0; match = indexOf(text, from, end)) {
+            appendMatch(text, from, match, match + literal.length(), builder);
+            from = match + literal.length();
+        }
+        int appended = Math.max(from, end - heldBack);
+        builder.append(text, from, appended);
+        return appended;
+    }
+
+    private int indexOf(CharSequence text, int from, int end) {
+        if (literal.isEmpty()) {
+            return -1;
+        }
+        char first = literal.charAt(0);
+        for (int i = from, max = end - literal.length(); i <= max; i++) {
+            if (text.charAt(i) == first && matchesAt(text, i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean matchesAt(CharSequence text, int index) {
+        for (int i = 1; i < literal.length(); i++) {
+            if (text.charAt(index + i) != literal.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int highlightRegex(CharSequence text, int start, int end, AttributedStringBuilder builder) {
+        if (end <= start) {
+            return start;
+        }
+        matcher.reset(text).region(start, end);
+        int from = start;
+        while (matcher.find()) {
+            if (matcher.end() > matcher.start()) {
+                appendMatch(text, from, matcher.start(), matcher.end(), builder);
+                from = matcher.end();
+            }
+        }
+        builder.append(text, from, end);
+        matcher.reset("");
+        return end;
+    }
+
+    private void appendMatch(CharSequence text, int from, int matchStart, int matchEnd,
+            AttributedStringBuilder builder) {
+        builder.append(text, from, matchStart)
+                .style(highlightStyle)
+                .append(text, matchStart, matchEnd)
+                .style(textStyle);
+    }
+}
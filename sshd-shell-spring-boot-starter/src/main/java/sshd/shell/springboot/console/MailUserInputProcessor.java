@@ -17,7 +17,6 @@ package sshd.shell.springboot.console;
 
 import java.util.Arrays;
 import java.util.Optional;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
@@ -30,7 +29,6 @@ import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Component;
 import sshd.shell.springboot.ShellException;
-import sshd.shell.springboot.util.Assert;
 
 /**
  *
@@ -43,7 +41,7 @@ import sshd.shell.springboot.util.Assert;
 @lombok.extern.slf4j.Slf4j
 class MailUserInputProcessor extends BaseUserInputProcessor {
 
-    private final Pattern pattern = Pattern.compile(".+\\s?\\|\\s?m (.+)");
+    private final Pattern pattern = Pattern.compile("m\\s+(.+)");
     @Autowired
     private JavaMailSender mailSender;
 
@@ -59,21 +57,20 @@ class MailUserInputProcessor extends BaseUserInputProcessor {
         return pattern;
     }
 
+    @Override
+    public Optional<String> getSymbol() {
+        return Optional.of("m");
+    }
+
     @Override
     public void processUserInput(String userInput) throws InterruptedException, ShellException {
-        String[] part = splitAndValidateCommand(userInput, "\\|", 2);
-        String emailId = getEmailId(userInput);
+        String[] part = splitAtLastPipe(userInput);
+        String emailId = getSymbolArgument(part[1]);
         String commandExecution = part[0];
         String output = processCommands(commandExecution);
         sendMail(emailId, commandExecution, output);
     }
 
-    private String getEmailId(String userInput) throws ShellException {
-        Matcher matcher = pattern.matcher(userInput);
-        Assert.isTrue(matcher.find(), "Unexpected error");
-        return matcher.group(1).trim();
-    }
-
     private void sendMail(String emailId, String commandExecution, String output) {
         MimeMessage mimeMessage = mailSender.createMimeMessage();
         MimeMessageHelper helper = new MimeMessageHelper(mimeMessage);
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2017 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.console;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import sshd.shell.springboot.ShellException;
+import sshd.shell.springboot.console.UsageInfo.Row;
+import sshd.shell.springboot.util.Assert;
+
+/**
+ *
+ * @author anand
+ */
+@Component
+@Order(3)
+class PagerUserInputProcessor extends BaseUserInputProcessor {
+
+    private final Pattern pattern = Pattern.compile("more");
+
+    @Override
+    public Optional<UsageInfo> getUsageInfo() {
+        return Optional.of(new UsageInfo(Arrays.<Row>asList(
+                new Row("more", "Pages response output of command execution"),
+                new Row("", "Example usage: beans | more"))));
+    }
+
+    @Override
+    public Pattern getPattern() {
+        return pattern;
+    }
+
+    @Override
+    public Optional<String> getSymbol() {
+        return Optional.of("more");
+    }
+
+    @Override
+    public void processUserInput(String userInput) throws InterruptedException, ShellException {
+        String[] tokens = splitAtLastPipe(userInput);
+        Assert.isTrue(matchPostProcessorInput(tokens[1]).isPresent(), "Invalid command");
+        ConsoleIO.pageOutput(streamCommands(tokens[0]));
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.console;
+
+import java.io.IOException;
+import sshd.shell.springboot.ShellException;
+
+/**
+ * Stage of a pipeline between command and post processor, e.g. 'grep' and 'head' in
+ * 'beans | grep Controller | head 5 | h Controller'. Beans of this type are looked up by symbol and process command
+ * output line by line as it is produced.
+ *
+ * @author anand
+ */
+public interface PipeOperator {
+
+    String getSymbol();
+
+    UsageInfo getUsageInfo();
+
+    /**
+     * Open stage of this operator for one command execution.
+     *
+     * @param arg argument following the symbol, null if none
+     * @param downstream stage receiving the lines passed on by this stage
+     * @return stage
+     * @throws ShellException if argument is invalid
+     */
+    Stage open(String arg, Stage downstream) throws ShellException;
+
+    interface Stage {
+
+        /**
+         * @param line line of output without line terminator
+         * @return false if no further lines are needed, in which case the command stops producing output
+         * @throws IOException if line cannot be written
+         */
+        boolean accept(String line) throws IOException;
+
+        /**
+         * Called once after the last line. Stages that hold lines, e.g. sort, pass them on here and then end the
+         * downstream stage.
+         *
+         * @throws IOException if lines cannot be written
+         */
+        void end() throws IOException;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.console;
+
+import java.util.Objects;
+import sshd.shell.springboot.ShellException;
+import sshd.shell.springboot.util.Assert;
+
+/**
+ *
+ * @author anand
+ */
+enum PipeOperators {
+    ;
+
+    private static final int DEFAULT_LINES = 10;
+
+    /**
+     * @param arg number of lines, null for default
+     * @param usage usage message if invalid
+     * @return number of lines
+     * @throws ShellException if not a non-negative number
+     */
+    static int lineCount(String arg, String usage) throws ShellException {
+        if (Objects.isNull(arg)) {
+            return DEFAULT_LINES;
+        }
+        Assert.isTrue(arg.trim().matches("\\d{1,9}"), usage);
+        return Integer.parseInt(arg.trim());
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.console;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Splits user input into pipe stages, and input of exec mode into commands. A pipe within quotes or escaped as
+ * {@code \|} is part of its stage, so that it can be used in arguments, e.g. regex alternation in
+ * {@code logfile grep 'WARN|ERROR' | h a\|b}, and so is a command separator for commands. Single quotes and escapes of
+ * pipes, semicolons and single quotes are removed from stages; double quotes are kept, as JSON arguments need them. An
+ * unterminated quote extends to the end of input.
+ *
+ * @author anand
+ */
+final class PipeSplitter {
+
+    private PipeSplitter() {
+        // Utility class
+    }
+
+    /**
+     * @param userInput user input
+     * @return stages of user input without quotes, the first being the command
+     */
+    static List<String> split(String userInput) {
+        List<String> stages = new ArrayList<>();
+        for (String stage : split(userInput, PipeSplitter::isPipe)) {
+            stages.add(unquote(stage));
+        }
+        return stages;
+    }
+
+    /**
+     * @param input input of exec mode
+     * @return commands separated by semicolons or line breaks, with quotes kept for their stages
+     */
+    static List<String> splitCommands(String input) {
+        return split(input, PipeSplitter::isCommandSeparator);
+    }
+
+    /**
+     * @param userInput user input
+     * @return index of last pipe separating stages, -1 if there is none
+     */
+    static int lastPipeIndex(String userInput) {
+        List<Integer> pipeIndexes = new ArrayList<>();
+        scan(userInput, PipeSplitter::isPipe, pipeIndexes);
+        return pipeIndexes.isEmpty() ? -1 : pipeIndexes.get(pipeIndexes.size() - 1);
+    }
+
+    /**
+     * @param stage stage of user input
+     * @return stage without quotes
+     */
+    static String unquote(String stage) {
+        return scan(stage, c -> false, new ArrayList<>());
+    }
+
+    private static List<String> split(String input, IntPredicate isSeparator) {
+        List<Integer> separatorIndexes = new ArrayList<>();
+        scan(input, isSeparator, separatorIndexes);
+        List<String> parts = new ArrayList<>(separatorIndexes.size() + 1);
+        int start = 0;
+        for (int separatorIndex : separatorIndexes) {
+            parts.add(input.substring(start, separatorIndex));
+            start = separatorIndex + 1;
+        }
+        parts.add(input.substring(start));
+        return parts;
+    }
+
+    private static boolean isPipe(int c) {
+        return c == '|';
+    }
+
+    private static boolean isCommandSeparator(int c) {
+        return c == ';' || c == '\r' || c == '\n';
+    }
+
+    private static String scan(String input, IntPredicate isSeparator, List<Integer> separatorIndexes) {
+        StringBuilder unquoted = new StringBuilder(input.length());
+        char quote = 0;
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (quote == '\'') {
+                if (c == '\'') {
+                    quote = 0;
+                } else {
+                    unquoted.append(c);
+                }
+            } else if (quote == '"') {
+                unquoted.append(c);
+                if (c == '\\' && i + 1 < input.length()) {
+                    // Escaped double quote within JSON string
+                    unquoted.append(input.charAt(++i));
+                } else if (c == '"') {
+                    quote = 0;
+                }
+            } else if (c == '\\' && i + 1 < input.length() && isEscapable(input.charAt(i + 1))) {
+                unquoted.append(input.charAt(++i));
+            } else if (c == '\'') {
+                quote = c;
+            } else {
+                if (c == '"') {
+                    quote = c;
+                } else if (isSeparator.test(c)) {
+                    separatorIndexes.add(i);
+                }
+                unquoted.append(c);
+            }
+        }
+        return unquoted.toString();
+    }
+
+    /**
+     * Other escapes are kept, as regex arguments need them, e.g. {@code grep \d+}.
+     */
+    private static boolean isEscapable(char c) {
+        return c == '|' || c == ';' || c == '\'';
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.console;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+import org.springframework.stereotype.Component;
+import sshd.shell.springboot.ShellException;
+import sshd.shell.springboot.autoconfiguration.StreamingOutput;
+import sshd.shell.springboot.util.Assert;
+
+/**
+ * Pipes command output through {@link PipeOperator} stages. Output is split into lines as it is written by the command
+ * and each line is pushed through the stages, so that it is never held as a whole unless a stage needs it (e.g. sort).
+ * Once a stage needs no further lines (e.g. head), the command is stopped by failing its next write.
+ *
+ * @author anand
+ */
+@Component
+class Pipeline {
+
+    private static final PipeOperator.Stage DISCARD = new PipeOperator.Stage() {
+        @Override
+        public boolean accept(String line) {
+            return true;
+        }
+
+        @Override
+        public void end() {
+            // Nothing to end
+        }
+    };
+    private final Map<String, PipeOperator> operatorsBySymbol = new HashMap<>();
+
+    Pipeline(List<PipeOperator> operators) {
+        for (PipeOperator operator : operators) {
+            if (Objects.nonNull(operatorsBySymbol.put(operator.getSymbol(), operator))) {
+                throw new IllegalArgumentException("Duplicate pipe operator symbol " + operator.getSymbol());
+            }
+        }
+    }
+
+    /**
+     * Resolve and validate operators before command is executed.
+     *
+     * @param operatorInputs operator symbol and argument of each stage, in order
+     * @return function piping command output through stages
+     * @throws ShellException if operator is unknown or its argument invalid
+     */
+    UnaryOperator<StreamingOutput> compile(List<String> operatorInputs) throws ShellException {
+        if (operatorInputs.isEmpty()) {
+            return UnaryOperator.identity();
+        }
+        List<String> symbols = new ArrayList<>(operatorInputs.size());
+        List<String> args = new ArrayList<>(operatorInputs.size());
+        for (String operatorInput : operatorInputs) {
+            String[] tokens = operatorInput.trim().split("\\s+", 2);
+            Assert.isTrue(!tokens[0].isEmpty(), "Invalid command");
+            Assert.isTrue(operatorsBySymbol.containsKey(tokens[0]),
+                    String.format("Invalid command. Unknown pipe operator '%s'", tokens[0]));
+            symbols.add(tokens[0]);
+            args.add(tokens.length == 2 ? tokens[1] : null);
+        }
+        open(symbols, args, DISCARD);
+        return source -> writer -> {
+            LineWriter lineWriter = new LineWriter(openValidated(symbols, args, new WriterStage(writer)), writer);
+            try {
+                source.writeTo(lineWriter);
+                lineWriter.close();
+            } catch (IOException | RuntimeException ex) {
+                if (!lineWriter.done) {
+                    throw ex;
+                }
+            }
+        };
+    }
+
+    private PipeOperator.Stage open(List<String> symbols, List<String> args, PipeOperator.Stage sink)
+            throws ShellException {
+        PipeOperator.Stage stage = sink;
+        for (int i = symbols.size() - 1; i >= 0; i--) {
+            stage = operatorsBySymbol.get(symbols.get(i)).open(args.get(i), stage);
+        }
+        return stage;
+    }
+
+    private PipeOperator.Stage openValidated(List<String> symbols, List<String> args, PipeOperator.Stage sink)
+            throws IOException {
+        try {
+            return open(symbols, args, sink);
+        } catch (ShellException ex) {
+            throw new IOException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Last stage, writing lines separated by line breaks to the output of the command.
+     */
+    @lombok.RequiredArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+    private static class WriterStage implements PipeOperator.Stage {
+
+        private final Writer writer;
+        private boolean first = true;
+
+        @Override
+        public boolean accept(String line) throws IOException {
+            if (!first) {
+                writer.write('\n');
+            }
+            first = false;
+            writer.write(line);
+            return true;
+        }
+
+        @Override
+        public void end() {
+            // Writer belongs to the command output
+        }
+    }
+
+    /**
+     * Splits what the command writes into lines for the first stage. Flushes are passed on so that lines of unbounded
+     * output (e.g. following a log file) appear as they are written.
+     */
+    @lombok.RequiredArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+    private static class LineWriter extends Writer {
+
+        private final PipeOperator.Stage stage;
+        private final Writer writer;
+        private final StringBuilder line = new StringBuilder();
+        private boolean done;
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            if (done) {
+                throw new IOException("Pipe closed");
+            }
+            int start = off;
+            for (int i = off; i < off + len; i++) {
+                if (cbuf[i] == '\n') {
+                    line.append(cbuf, start, i - start);
+                    start = i + 1;
+                    passLine();
+                }
+            }
+            line.append(cbuf, start, off + len - start);
+        }
+
+        private void passLine() throws IOException {
+            int length = line.length() > 0 && line.charAt(line.length() - 1) == '\r'
+                    ? line.length() - 1
+                    : line.length();
+            String text = line.substring(0, length);
+            line.setLength(0);
+            if (!stage.accept(text)) {
+                end();
+                throw new IOException("Pipe closed");
+            }
+        }
+
+        private void end() throws IOException {
+            done = true;
+            stage.end();
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!done) {
+                if (line.length() > 0) {
+                    passLine();
+                }
+                end();
+            }
+        }
+    }
+}
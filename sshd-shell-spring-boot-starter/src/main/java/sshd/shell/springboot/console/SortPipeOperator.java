@@ -0,0 +1,105 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.console;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import sshd.shell.springboot.ShellException;
+import sshd.shell.springboot.console.UsageInfo.Row;
+import sshd.shell.springboot.util.Assert;
+
+/**
+ *
+ * @author anand
+ */
+@Component
+@Order(4)
+class SortPipeOperator implements PipeOperator {
+
+    private static final Pattern LEADING_NUMBER = Pattern.compile("^\\s*(-?\\d+(\\.\\d+)?)");
+
+    @Override
+    public String getSymbol() {
+        return "sort";
+    }
+
+    @Override
+    public UsageInfo getUsageInfo() {
+        return new UsageInfo(Arrays.<Row>asList(
+                new Row("sort [-n] [-r]", "Sorted lines, -n by leading number, -r in reverse order")));
+    }
+
+    @Override
+    public Stage open(String arg, Stage downstream) throws ShellException {
+        boolean numeric = false;
+        boolean reverse = false;
+        if (StringUtils.hasText(arg)) {
+            for (String option : arg.trim().split("\\s+")) {
+                Assert.isTrue(option.equals("-n") || option.equals("-r"), "Usage: sort [-n] [-r]");
+                numeric |= option.equals("-n");
+                reverse |= option.equals("-r");
+            }
+        }
+        Comparator<String> comparator = numeric
+                ? Comparator.comparingDouble(SortPipeOperator::leadingNumber).thenComparing(Comparator.naturalOrder())
+                : Comparator.naturalOrder();
+        return new SortStage(reverse ? comparator.reversed() : comparator, downstream);
+    }
+
+    /**
+     * Lines without leading number sort as 0.
+     */
+    private static double leadingNumber(String line) {
+        Matcher matcher = LEADING_NUMBER.matcher(line);
+        return matcher.find() ? Double.parseDouble(matcher.group(1)) : 0;
+    }
+
+    /**
+     * Sorting needs all lines, which are held until the end of output.
+     */
+    @lombok.RequiredArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+    private static class SortStage implements Stage {
+
+        private final Comparator<String> comparator;
+        private final Stage downstream;
+        private final List<String> lines = new ArrayList<>();
+
+        @Override
+        public boolean accept(String line) {
+            lines.add(line);
+            return true;
+        }
+
+        @Override
+        public void end() throws IOException {
+            lines.sort(comparator);
+            for (String line : lines) {
+                if (!downstream.accept(line)) {
+                    break;
+                }
+            }
+            downstream.end();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.console;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Output of a background job. Held in memory up to threshold, after which all of it is moved to a temporary file, so
+ * that memory per job stays bounded. Readers follow the output as it is written until the spool is closed.
+ *
+ * @author anand
+ */
+@lombok.extern.slf4j.Slf4j
+class Spool extends OutputStream {
+
+    private final int threshold;
+    private byte[] buffer = new byte[256];
+    private Path file;
+    private OutputStream fileOutput;
+    private long size;
+    private boolean closed;
+
+    Spool(long threshold) {
+        this.threshold = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(0, threshold));
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Spool closed");
+        }
+        if (Objects.isNull(file) && size + len > threshold) {
+            file = Files.createTempFile("sshd-job-", ".out");
+            fileOutput = Files.newOutputStream(file, StandardOpenOption.WRITE);
+            fileOutput.write(buffer, 0, (int) size);
+            buffer = null;
+        }
+        if (Objects.isNull(file)) {
+            if (size + len > buffer.length) {
+                buffer = Arrays.copyOf(buffer, (int) Math.min(threshold, Math.max(size + len, 2L * buffer.length)));
+            }
+            System.arraycopy(b, off, buffer, (int) size, len);
+        } else {
+            fileOutput.write(b, off, len); // Unbuffered so that readers see it, callers write through a buffer
+        }
+        size += len;
+        notifyAll();
+    }
+
+    synchronized long size() {
+        return size;
+    }
+
+    synchronized boolean isSpooledToFile() {
+        return Objects.nonNull(file);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            notifyAll();
+            if (Objects.nonNull(fileOutput)) {
+                fileOutput.close();
+            }
+        }
+    }
+
+    /**
+     * Close and delete temporary file, if any.
+     */
+    synchronized void delete() {
+        try {
+            close();
+            if (Objects.nonNull(file)) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException ex) {
+            log.warn("Unable to delete spool file {}", file, ex);
+        }
+    }
+
+    /**
+     * @return stream of output from the start, which waits for further output until spool is closed
+     */
+    InputStream newInputStream() {
+        return new SpoolInputStream();
+    }
+
+    private class SpoolInputStream extends InputStream {
+
+        private long position;
+        private FileChannel channel;
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            Path spoolFile;
+            int length;
+            synchronized (Spool.this) {
+                waitForOutput();
+                if (position == size) {
+                    return -1;
+                }
+                length = (int) Math.min(len, size - position);
+                if (Objects.isNull(file)) {
+                    System.arraycopy(buffer, (int) position, b, off, length);
+                    position += length;
+                    return length;
+                }
+                spoolFile = file;
+            }
+            return readFile(spoolFile, b, off, length);
+        }
+
+        private void waitForOutput() throws InterruptedIOException {
+            try {
+                while (position == size && !closed) {
+                    Spool.this.wait();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for job output");
+            }
+        }
+
+        private int readFile(Path spoolFile, byte[] b, int off, int length) throws IOException {
+            if (Objects.isNull(channel)) {
+                channel = FileChannel.open(spoolFile, StandardOpenOption.READ);
+            }
+            int read = channel.read(ByteBuffer.wrap(b, off, length), position);
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (Objects.nonNull(channel)) {
+                channel.close();
+            }
+        }
+    }
+}
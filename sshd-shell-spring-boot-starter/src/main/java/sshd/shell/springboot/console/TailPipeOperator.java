@@ -0,0 +1,81 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.console;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import sshd.shell.springboot.ShellException;
+import sshd.shell.springboot.console.UsageInfo.Row;
+
+/**
+ *
+ * @author anand
+ */
+@Component
+@Order(3)
+class TailPipeOperator implements PipeOperator {
+
+    @Override
+    public String getSymbol() {
+        return "tail";
+    }
+
+    @Override
+    public UsageInfo getUsageInfo() {
+        return new UsageInfo(Arrays.<Row>asList(new Row("tail [<n>]", "Last <n> lines, 10 by default")));
+    }
+
+    @Override
+    public Stage open(String arg, Stage downstream) throws ShellException {
+        return new TailStage(PipeOperators.lineCount(arg, "Usage: tail [<n>]"), downstream);
+    }
+
+    /**
+     * Holds no more than the last lines seen.
+     */
+    @lombok.RequiredArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+    private static class TailStage implements Stage {
+
+        private final int lines;
+        private final Stage downstream;
+        private final Deque<String> last = new ArrayDeque<>();
+
+        @Override
+        public boolean accept(String line) {
+            if (lines > 0) {
+                if (last.size() == lines) {
+                    last.removeFirst();
+                }
+                last.addLast(line);
+            }
+            return true;
+        }
+
+        @Override
+        public void end() throws IOException {
+            for (String line : last) {
+                if (!downstream.accept(line)) {
+                    break;
+                }
+            }
+            downstream.end();
+        }
+    }
+}
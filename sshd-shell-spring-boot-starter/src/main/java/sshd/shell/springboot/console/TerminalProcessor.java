@@ -18,9 +18,13 @@ package sshd.shell.springboot.console;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.IntConsumer;
-import java.util.regex.Matcher;
 import org.jline.reader.Completer;
 import org.jline.reader.LineReader;
 import org.jline.reader.LineReaderBuilder;
@@ -33,6 +37,7 @@ import sshd.shell.springboot.ShellException;
 import sshd.shell.springboot.autoconfiguration.Constants;
 import sshd.shell.springboot.autoconfiguration.SshSessionContext;
 import sshd.shell.springboot.autoconfiguration.SshdShellProperties.Shell;
+import sshd.shell.springboot.util.Assert;
 
 /**
  *
@@ -47,13 +52,16 @@ public class TerminalProcessor {
 
     private final Shell properties;
     private final Completer completer;
-    private final List<BaseUserInputProcessor> userInputProcessors;
+    private final UserInputDispatcher userInputDispatcher;
+    private final BackgroundJobs backgroundJobs;
     private final String prompt;
 
-    TerminalProcessor(Shell properties, Completer completer, List<BaseUserInputProcessor> userInputProcessors) {
+    TerminalProcessor(Shell properties, Completer completer, List<BaseUserInputProcessor> userInputProcessors,
+            BackgroundJobs backgroundJobs) {
         this.properties = properties;
         this.completer = completer;
-        this.userInputProcessors = userInputProcessors;
+        this.userInputDispatcher = new UserInputDispatcher(userInputProcessors);
+        this.backgroundJobs = backgroundJobs;
         prompt = new AttributedStringBuilder()
                 .style(getStyle(properties.getPrompt().getColor()))
                 .append(properties.getPrompt().getTitle())
@@ -70,9 +78,45 @@ public class TerminalProcessor {
             processInputs(reader, exitCallback);
         } catch (IOException ex) {
             log.error("Error building terminal instance", ex);
+        } finally {
+            backgroundJobs.killAll();
         }
     }
 
+    /**
+     * Exec mode. Runs newline or semicolon separated commands without terminal or line reader and writes raw output.
+     * Separators within quotes or escaped are part of their command, see {@link PipeSplitter}.
+     *
+     * @param commands commands to execute
+     * @param os output stream of session
+     * @return exit status, 0 if all commands were executed successfully, 1 if any failed, including while writing its
+     * output, or if execution was interrupted
+     */
+    public int processCommands(String commands, OutputStream os) {
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
+        SshSessionContext.put(ConsoleIO.EXEC_WRITER, writer);
+        int exitCode = 0;
+        for (String userInput : PipeSplitter.splitCommands(commands)) {
+            try {
+                SshSessionContext.remove(ConsoleIO.OUTPUT_FAILED);
+                handleUserInput(userInput.trim());
+                if (Boolean.TRUE.equals(SshSessionContext.get(ConsoleIO.OUTPUT_FAILED))) {
+                    exitCode = 1;
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupted();
+                ConsoleIO.writeOutput(ex.getMessage());
+                exitCode = 1;
+                break;
+            } catch (ShellException | IllegalArgumentException ex) {
+                ConsoleIO.writeOutput(ex.getMessage());
+                exitCode = 1;
+            }
+        }
+        writer.flush();
+        return exitCode;
+    }
+
     private Terminal newTerminalInstance(String terminalType, InputStream is, OutputStream os) throws IOException {
         return TerminalBuilder.builder()
                 .system(false)
@@ -89,11 +133,12 @@ public class TerminalProcessor {
     }
 
     private void createDefaultSessionContext(LineReader reader, Terminal terminal) {
-        SshSessionContext.put(ConsoleIO.LINE_READER, reader);
-        SshSessionContext.put(ConsoleIO.TEXT_STYLE, getStyle(properties.getText().getColor()));
-        SshSessionContext.put(ConsoleIO.HIGHLIGHT_COLOR,
+        SshSessionContext context = SshSessionContext.current();
+        context.putValue(ConsoleIO.LINE_READER, reader);
+        context.putValue(ConsoleIO.TEXT_STYLE, getStyle(properties.getText().getColor()));
+        context.putValue(ConsoleIO.HIGHLIGHT_COLOR,
                 AttributedStyle.DEFAULT.background(properties.getText().getHighlightColor().value));
-        SshSessionContext.put(ConsoleIO.TERMINAL, terminal);
+        context.putValue(ConsoleIO.TERMINAL, terminal);
     }
 
     private AttributedStyle getStyle(ColorType color) {
@@ -104,19 +149,11 @@ public class TerminalProcessor {
     }
 
     private void processInputs(LineReader reader, IntConsumer exitCallback) {
-        try {
-            processUserInput(reader, exitCallback);
-        } catch (UserInterruptException ex) {
-            // Need not concern with this exception
-            log.warn("[{}] Ctrl-C interrupt", SshSessionContext.<String>get(Constants.USER));
-            exitCallback.accept(1);
-        }
-    }
-
-    private void processUserInput(LineReader reader, IntConsumer exitCallback) {
         while (true) {
             try {
                 handleUserInput(reader.readLine(prompt).trim());
+            } catch (UserInterruptException ex) {
+                // Ctrl-C at the prompt discards the line
             } catch (InterruptedException ex) {
                 Thread.currentThread().interrupted();
                 ConsoleIO.writeOutput(ex.getMessage());
@@ -128,17 +165,53 @@ public class TerminalProcessor {
         }
     }
 
+    /**
+     * Ctrl-C while a command runs interrupts the session thread waiting for it, which cancels the command only.
+     */
     private void handleUserInput(String userInput) throws InterruptedException, ShellException {
         if (!userInput.isEmpty()) {
-            log.info("[{}] Executed command: {}", SshSessionContext.<String>get(Constants.USER), userInput);
-            for (BaseUserInputProcessor userInputProcessor : userInputProcessors) {
-                Matcher matcher = userInputProcessor.getPattern().matcher(userInput);
-                if (matcher.matches()) {
-                    userInputProcessor.processUserInput(userInput);
-                    return;
+            log.info("[{}] Executed command: {}", SshSessionContext.get(SshSessionContext.USER), userInput);
+            if (userInput.endsWith("&")) {
+                startBackgroundJob(userInput.substring(0, userInput.length() - 1).trim());
+                return;
+            }
+            BaseUserInputProcessor processor = dispatch(userInput);
+            Terminal terminal = SshSessionContext.get(ConsoleIO.TERMINAL);
+            AtomicBoolean cancelled = new AtomicBoolean();
+            Terminal.SignalHandler previousHandler = ConsoleIO.handleInterrupt(terminal, cancelled);
+            try {
+                processor.processUserInput(userInput);
+            } catch (InterruptedException ex) {
+                if (!cancelled.get()) {
+                    throw ex;
+                }
+                log.info("[{}] Cancelled command: {}", SshSessionContext.get(SshSessionContext.USER), userInput);
+                throw new ShellException(ConsoleIO.COMMAND_CANCELLED);
+            } finally {
+                if (Objects.nonNull(previousHandler)) {
+                    terminal.handle(Terminal.Signal.INT, previousHandler);
+                }
+                if (cancelled.get()) {
+                    Thread.interrupted(); // Interrupt was meant for the command only, not the session
                 }
             }
-            throw new ShellException("Unsupported command post processor! Should not happen");
         }
     }
+
+    private BaseUserInputProcessor dispatch(String userInput) throws ShellException {
+        return userInputDispatcher.dispatch(userInput)
+                .orElseThrow(() -> new ShellException("Unsupported command post processor! Should not happen"));
+    }
+
+    /**
+     * Command ending with '&amp;' runs in the background without terminal. Its output is attached to with 'fg'.
+     */
+    private void startBackgroundJob(String command) throws ShellException {
+        Assert.isTrue(Objects.nonNull(SshSessionContext.get(ConsoleIO.TERMINAL)),
+                "Background jobs are not supported in exec mode");
+        Assert.isTrue(!command.isEmpty(), "Invalid command");
+        BaseUserInputProcessor processor = dispatch(command);
+        int jobId = backgroundJobs.start(command, () -> processor.processUserInput(command));
+        ConsoleIO.writeOutput("[" + jobId + "] " + command);
+    }
 }
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.console;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.util.Assert;
+
+/**
+ * Resolves user input to its processor. Built once from the processors so that each line is scanned a single time
+ * for the post processor symbol following the last pipe outside quotes, which is looked up in a map; only processors
+ * without a symbol are matched by pattern against the whole line.
+ *
+ * @author anand
+ */
+class UserInputDispatcher {
+
+    private final Map<String, BaseUserInputProcessor> processorsBySymbol = new HashMap<>();
+    private final List<BaseUserInputProcessor> patternProcessors = new ArrayList<>();
+
+    UserInputDispatcher(List<BaseUserInputProcessor> userInputProcessors) {
+        for (BaseUserInputProcessor processor : userInputProcessors) {
+            Optional<String> symbol = processor.getSymbol();
+            if (symbol.isPresent()) {
+                Assert.isNull(processorsBySymbol.put(symbol.get(), processor),
+                        "Duplicate post processor symbol " + symbol.get());
+            } else {
+                patternProcessors.add(processor);
+            }
+        }
+    }
+
+    Optional<BaseUserInputProcessor> dispatch(String userInput) {
+        int pipeIndex = PipeSplitter.lastPipeIndex(userInput);
+        if (pipeIndex >= 0) {
+            Optional<BaseUserInputProcessor> processor = symbolProcessorAfterPipe(
+                    PipeSplitter.unquote(userInput.substring(pipeIndex + 1)));
+            if (processor.isPresent()) {
+                return processor;
+            }
+        }
+        for (BaseUserInputProcessor processor : patternProcessors) {
+            if (processor.getPattern().matcher(userInput).matches()) {
+                return Optional.of(processor);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Symbol is the first word after the pipe. The processor looked up by it must accept the whole post processor
+     * input, e.g. an argument for 'h' and none for 'more', as it does when processing the input.
+     */
+    private Optional<BaseUserInputProcessor> symbolProcessorAfterPipe(String postProcessorInput) {
+        int start = skipWhitespace(postProcessorInput, 0);
+        int end = start;
+        while (end < postProcessorInput.length() && !Character.isWhitespace(postProcessorInput.charAt(end))) {
+            end++;
+        }
+        return Optional.ofNullable(processorsBySymbol.get(postProcessorInput.substring(start, end)))
+                .filter(processor -> processor.matchPostProcessorInput(postProcessorInput).isPresent());
+    }
+
+    private int skipWhitespace(String userInput, int index) {
+        while (index < userInput.length() && Character.isWhitespace(userInput.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.console;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import sshd.shell.springboot.ShellException;
+import sshd.shell.springboot.console.UsageInfo.Row;
+import sshd.shell.springboot.util.Assert;
+
+/**
+ *
+ * @author anand
+ */
+@Component
+@Order(5)
+class WcPipeOperator implements PipeOperator {
+
+    @Override
+    public String getSymbol() {
+        return "wc";
+    }
+
+    @Override
+    public UsageInfo getUsageInfo() {
+        return new UsageInfo(Arrays.<Row>asList(
+                new Row("wc [-l]", "Number of lines, words and characters, -l for lines only")));
+    }
+
+    @Override
+    public Stage open(String arg, Stage downstream) throws ShellException {
+        Assert.isTrue(!StringUtils.hasText(arg) || arg.trim().equals("-l"), "Usage: wc [-l]");
+        return new WcStage(StringUtils.hasText(arg), downstream);
+    }
+
+    /**
+     * Counts without holding lines. Characters include a line break per line.
+     */
+    @lombok.RequiredArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+    private static class WcStage implements Stage {
+
+        private final boolean linesOnly;
+        private final Stage downstream;
+        private long lines;
+        private long words;
+        private long characters;
+
+        @Override
+        public boolean accept(String line) {
+            lines++;
+            characters += line.length() + 1;
+            boolean inWord = false;
+            for (int i = 0; i < line.length(); i++) {
+                boolean wordCharacter = !Character.isWhitespace(line.charAt(i));
+                if (wordCharacter && !inWord) {
+                    words++;
+                }
+                inWord = wordCharacter;
+            }
+            return true;
+        }
+
+        @Override
+        public void end() throws IOException {
+            downstream.accept(linesOnly
+                    ? Long.toString(lines)
+                    : String.format(Locale.ENGLISH, "%d %d %d", lines, words, characters));
+            downstream.end();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.server;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.sshd.common.channel.Window;
+import org.apache.sshd.server.channel.ChannelSession;
+import sshd.shell.springboot.autoconfiguration.SshdShellProperties.Shell.Output;
+
+/**
+ * Writes session output to the SSH channel in chunks no larger than the window the client has advertised, waiting
+ * when there is none, so that output of a slow client waits in the command rather than in channel buffers. Bytes
+ * waiting for window, bytes written and time spent waiting are counted over all sessions.
+ *
+ * @author anand
+ */
+class ChannelWindowOutput {
+
+    private final int chunkSize;
+    private final long windowTimeoutMillis;
+    private final AtomicLong pendingBytes = new AtomicLong();
+    private final LongAdder writtenBytes = new LongAdder();
+    private final LongAdder windowWaitNanos = new LongAdder();
+
+    ChannelWindowOutput(Output props) {
+        this.chunkSize = (int) Math.max(1, props.getChunkSize().toBytes());
+        this.windowTimeoutMillis = props.getWindowTimeout().toMillis();
+    }
+
+    OutputStream wrap(ChannelSession channel, OutputStream os) {
+        return new WindowedOutputStream(channel.getRemoteWindow(), os);
+    }
+
+    long getPendingBytes() {
+        return pendingBytes.get();
+    }
+
+    long getWrittenBytes() {
+        return writtenBytes.sum();
+    }
+
+    double getWindowWaitSeconds() {
+        return windowWaitNanos.sum() / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    private class WindowedOutputStream extends FilterOutputStream {
+
+        private final Window remoteWindow;
+
+        WindowedOutputStream(Window remoteWindow, OutputStream os) {
+            super(os);
+            this.remoteWindow = remoteWindow;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            pendingBytes.addAndGet(len);
+            int written = 0;
+            try {
+                while (written < len) {
+                    int chunk = (int) Math.min(Math.min(len - written, maxChunkSize()), waitForWindow());
+                    out.write(b, off + written, chunk);
+                    if (written + chunk < len) {
+                        out.flush(); // Last chunk is sent on flush, so that small writes still share packets
+                    }
+                    written += chunk;
+                    pendingBytes.addAndGet(-chunk);
+                    writtenBytes.add(chunk);
+                }
+            } finally {
+                pendingBytes.addAndGet(written - len);
+            }
+        }
+
+        private int maxChunkSize() {
+            long packetSize = remoteWindow.getPacketSize();
+            return packetSize > 0 ? (int) Math.min(chunkSize, packetSize) : chunkSize;
+        }
+
+        /**
+         * @return window available, at least 1 byte
+         */
+        private long waitForWindow() throws IOException {
+            long size = remoteWindow.getSize();
+            if (size > 0) {
+                return size;
+            }
+            long start = System.nanoTime();
+            try {
+                remoteWindow.waitForSpace(windowTimeoutMillis);
+                return Math.max(1, remoteWindow.getSize());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for SSH channel window");
+            } finally {
+                windowWaitNanos.add(System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.server;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import sshd.shell.springboot.autoconfiguration.SshdShellProperties.Shell.Executor;
+import sshd.shell.springboot.autoconfiguration.SshdShellProperties.Shell.Sessions;
+import sshd.shell.springboot.util.ExecutorUtils;
+
+/**
+ * Runs SSH shell and exec sessions. Uses virtual threads when available (or requested) and a bounded pool of
+ * platform threads otherwise. Sessions beyond the configured maximum, in total or per user, are rejected before they
+ * take a thread.
+ *
+ * @author anand
+ */
+@lombok.extern.slf4j.Slf4j
+class SessionExecutor {
+
+    enum Rejection {
+        EXECUTOR,
+        MAX_SESSIONS,
+        MAX_USER_SESSIONS
+    }
+
+    private final ExecutorService executorService;
+    @lombok.Getter
+    private final boolean virtual;
+    private final Sessions sessionProps;
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final AtomicInteger admittedCount = new AtomicInteger();
+    private final Map<String, Integer> sessionsByUser = new ConcurrentHashMap<>();
+    private final LongAdder submittedCount = new LongAdder();
+    private final Map<Rejection, LongAdder> rejectedCounts = new EnumMap<>(Rejection.class);
+
+    SessionExecutor(Executor props, Sessions sessionProps) {
+        ExecutorService virtualExecutor = props.getType() == Executor.Type.PLATFORM
+                ? null
+                : ExecutorUtils.newVirtualThreadPerTaskExecutor().orElse(null);
+        if (props.getType() == Executor.Type.VIRTUAL && virtualExecutor == null) {
+            log.warn("Virtual threads are not supported by this JVM, using bounded platform thread pool instead");
+        }
+        this.virtual = virtualExecutor != null;
+        this.executorService = virtual
+                ? virtualExecutor
+                : ExecutorUtils.newBoundedExecutor("ssh-session-", props.getMaxThreads(), props.getQueueCapacity(),
+                        props.getKeepAlive());
+        this.sessionProps = sessionProps;
+        for (Rejection rejection : Rejection.values()) {
+            rejectedCounts.put(rejection, new LongAdder());
+        }
+        log.info("SSH sessions run on {}", virtual ? "virtual threads" : "platform thread pool of max size "
+                + props.getMaxThreads());
+    }
+
+    /**
+     * Admit session of user and run it. The session counts against the limits until it ends or is cancelled.
+     *
+     * @param user user of session
+     * @param session session
+     * @return future of session
+     * @throws RejectedExecutionException with message for the user if session is not admitted
+     */
+    Future<?> submit(String user, Runnable session) {
+        admit(user);
+        FutureTask<Void> task = new FutureTask<Void>(() -> {
+            activeCount.incrementAndGet();
+            try {
+                session.run();
+            } finally {
+                activeCount.decrementAndGet();
+            }
+        }, null) {
+            @Override
+            protected void done() {
+                release(user);
+            }
+        };
+        try {
+            executorService.execute(task);
+        } catch (RejectedExecutionException ex) {
+            release(user);
+            throw reject(Rejection.EXECUTOR, "Too many concurrent sessions, please try again later");
+        }
+        submittedCount.increment();
+        return task;
+    }
+
+    private void admit(String user) {
+        if (admittedCount.incrementAndGet() > sessionProps.getMax() && sessionProps.getMax() > 0) {
+            admittedCount.decrementAndGet();
+            throw reject(Rejection.MAX_SESSIONS, "Too many concurrent sessions, please try again later");
+        }
+        if (sessionsByUser.merge(user, 1, Integer::sum) > sessionProps.getMaxPerUser()
+                && sessionProps.getMaxPerUser() > 0) {
+            release(user);
+            throw reject(Rejection.MAX_USER_SESSIONS, "Too many concurrent sessions of user " + user
+                    + ", please close one and try again");
+        }
+    }
+
+    private void release(String user) {
+        sessionsByUser.computeIfPresent(user, (key, count) -> count == 1 ? null : count - 1);
+        admittedCount.decrementAndGet();
+    }
+
+    private RejectedExecutionException reject(Rejection rejection, String message) {
+        rejectedCounts.get(rejection).increment();
+        return new RejectedExecutionException(message);
+    }
+
+    int getActiveCount() {
+        return activeCount.get();
+    }
+
+    int getQueuedCount() {
+        return executorService instanceof ThreadPoolExecutor
+                ? ((ThreadPoolExecutor) executorService).getQueue().size()
+                : 0;
+    }
+
+    int getUserCount() {
+        return sessionsByUser.size();
+    }
+
+    long getSubmittedCount() {
+        return submittedCount.sum();
+    }
+
+    long getRejectedCount(Rejection rejection) {
+        return rejectedCounts.get(rejection).sum();
+    }
+
+    void shutdown() {
+        executorService.shutdownNow();
+    }
+}
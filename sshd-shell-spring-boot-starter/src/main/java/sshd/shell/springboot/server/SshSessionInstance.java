@@ -23,9 +23,15 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.BiConsumer;
 import org.apache.sshd.common.Factory;
+import org.apache.sshd.common.io.IoSession;
 import org.apache.sshd.server.Environment;
 import org.apache.sshd.server.ExitCallback;
 import org.apache.sshd.server.channel.ChannelSession;
@@ -45,10 +51,13 @@ class SshSessionInstance implements Command, Factory<Command>, Runnable {
     private final TerminalProcessor terminalProcessor;
     private final Optional<String> rootedFileSystemBaseDir;
     private final BiConsumer<Class<?>, PrintStream> shellBannerPrinter;
+    private final SessionExecutor sessionExecutor;
+    private final ChannelWindowOutput channelWindowOutput;
+    private final Optional<String> execCommand;
     private InputStream is;
     private OutputStream os;
     private ExitCallback exitCallback;
-    private Thread sshThread;
+    private Future<?> sessionFuture;
     private ChannelSession channel;
     private String terminalType;
 
@@ -56,37 +65,66 @@ class SshSessionInstance implements Command, Factory<Command>, Runnable {
     public void start(ChannelSession channel, Environment env) throws IOException {
         terminalType = env.getEnv().get(Environment.ENV_TERM);
         this.channel = channel;
-        sshThread = new Thread(this, "ssh-cli " + channel.getSession().getIoSession().getAttribute(Constants.USER));
-        sshThread.start();
+        os = channelWindowOutput.wrap(channel, os);
+        try {
+            sessionFuture = sessionExecutor.submit(String.valueOf(getUser()), this);
+        } catch (RejectedExecutionException ex) {
+            log.warn("[{}] Session rejected: {}", getUser(), ex.getMessage());
+            os.write((ex.getMessage() + "\r\n").getBytes(StandardCharsets.UTF_8));
+            os.flush();
+            exitCallback.onExit(1);
+        }
     }
 
     @Override
     public void run() {
-        shellBannerPrinter.accept(this.getClass(), new PrintStream(os));
-        populateSessionContext();
+        Thread currentThread = Thread.currentThread();
+        String threadName = currentThread.getName();
+        currentThread.setName("ssh-cli " + getUser());
         try {
-            terminalProcessor.processInputs(is, os, terminalType, exitCode -> exitCallback.onExit(exitCode));
+            newSessionContext().wrap(this::runSession).run();
         } finally {
-            SshSessionContext.clear();
+            currentThread.setName(threadName);
+        }
+    }
+
+    private void runSession() {
+        String user = SshSessionContext.get(SshSessionContext.USER);
+        SshSessionContext.setUserDir(() -> getRootedUserDir(user));
+        if (execCommand.isPresent()) {
+            exitCallback.onExit(terminalProcessor.processCommands(execCommand.get(), os));
+        } else {
+            shellBannerPrinter.accept(this.getClass(), new PrintStream(os));
+            terminalProcessor.processInputs(is, os, terminalType, exitCode -> exitCallback.onExit(exitCode));
         }
     }
 
-    private void populateSessionContext() {
-        SshSessionContext.put(Constants.USER, channel.getSession().getIoSession().getAttribute(Constants.USER));
-        SshSessionContext.put(Constants.USER_ROLES, channel.getSession().getIoSession()
-                .getAttribute(Constants.USER_ROLES));
-        SshSessionContext.setUserDir(() -> getRootedUserDir());
+    private Object getUser() {
+        return channel.getSession().getIoSession().getAttribute(Constants.USER);
     }
 
-    private File getRootedUserDir() {
+    @SuppressWarnings("unchecked")
+    private SshSessionContext newSessionContext() {
+        IoSession ioSession = channel.getSession().getIoSession();
+        String user = (String) ioSession.getAttribute(Constants.USER);
+        SshSessionContext context = new SshSessionContext();
+        context.putValue(SshSessionContext.USER, user);
+        context.putValue(SshSessionContext.USER_ROLES,
+                (Collection<String>) ioSession.getAttribute(Constants.USER_ROLES));
+        return context;
+    }
+
+    private File getRootedUserDir(String user) {
         return new File(rootedFileSystemBaseDir.orElseThrow(() -> new IllegalStateException("SCP/SFTP is not enabled")),
-                SshSessionContext.<String>get(Constants.USER));
+                user);
     }
 
     @Override
     public void destroy(ChannelSession channel) throws Exception {
         channel.close();
-        sshThread.interrupt();
+        if (Objects.nonNull(sessionFuture)) {
+            sessionFuture.cancel(true);
+        }
     }
 
     @Override
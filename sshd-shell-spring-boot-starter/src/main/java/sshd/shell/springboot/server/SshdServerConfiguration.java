@@ -15,6 +15,9 @@
  */
 package sshd.shell.springboot.server;
 
+import org.apache.sshd.common.Property;
+import org.apache.sshd.common.io.BuiltinIoServiceFactoryFactories;
+import org.apache.sshd.core.CoreModuleProperties;
 import org.apache.sshd.scp.server.ScpCommandFactory;
 import org.apache.sshd.server.SshServer;
 import org.apache.sshd.server.auth.password.PasswordAuthenticator;
@@ -33,10 +36,12 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.util.StringUtils;
 import sshd.shell.springboot.autoconfiguration.Constants;
 import sshd.shell.springboot.autoconfiguration.SshdShellProperties;
 import sshd.shell.springboot.autoconfiguration.SshdShellProperties.Shell;
 import sshd.shell.springboot.autoconfiguration.SshdShellProperties.Shell.Auth;
+import sshd.shell.springboot.autoconfiguration.SshdShellProperties.Shell.Io;
 import sshd.shell.springboot.console.TerminalProcessor;
 
 import javax.annotation.PostConstruct;
@@ -67,6 +72,20 @@ class SshdServerConfiguration {
     @Qualifier(Constants.SHELL_BANNER)
     @Autowired
     private Banner shellBanner;
+    @Autowired
+    private SessionExecutor sessionExecutor;
+    @Autowired
+    private ChannelWindowOutput channelWindowOutput;
+
+    @Bean(destroyMethod = "shutdown")
+    static SessionExecutor sshSessionExecutor(SshdShellProperties properties) {
+        return new SessionExecutor(properties.getShell().getExecutor(), properties.getShell().getSessions());
+    }
+
+    @Bean
+    static ChannelWindowOutput sshChannelWindowOutput(SshdShellProperties properties) {
+        return new ChannelWindowOutput(properties.getShell().getOutput());
+    }
 
     @Bean
     SshServer sshServer() {
@@ -83,11 +102,37 @@ class SshdServerConfiguration {
         SshServer server = SshServer.setUpDefaultServer();
         server.setHost(props.getHost());
         server.setPort(props.getPort());
+        configureIoService(server, props.getIo());
         configureAuthenticationPolicies(server, props);
         configureServer(server);
         return server;
     }
 
+    private void configureIoService(SshServer server, Io ioProps) {
+        if (ioProps.getBackend() != Io.Backend.DEFAULT) {
+            BuiltinIoServiceFactoryFactories backend = BuiltinIoServiceFactoryFactories.valueOf(
+                    ioProps.getBackend().name());
+            if (!backend.isSupported()) {
+                throw new IllegalArgumentException("I/O backend " + backend.getName() + " is not in the classpath");
+            }
+            server.setIoServiceFactoryFactory(backend.create());
+        }
+        setIfPresent(server, CoreModuleProperties.NIO_WORKERS, ioProps.getWorkers());
+        setIfPresent(server, CoreModuleProperties.SOCKET_BACKLOG, ioProps.getBacklog());
+        setIfPresent(server, CoreModuleProperties.TCP_NODELAY, ioProps.getTcpNoDelay());
+        setIfPresent(server, CoreModuleProperties.SOCKET_KEEPALIVE, ioProps.getKeepAlive());
+        setIfPresent(server, CoreModuleProperties.SOCKET_REUSEADDR, ioProps.getReuseAddress());
+        setIfPresent(server, CoreModuleProperties.SOCKET_RCVBUF, ioProps.getReceiveBufferSize());
+        setIfPresent(server, CoreModuleProperties.SOCKET_SNDBUF, ioProps.getSendBufferSize());
+        setIfPresent(server, CoreModuleProperties.NIO2_READ_BUFFER_SIZE, ioProps.getReadBufferSize());
+    }
+
+    private <T> void setIfPresent(SshServer server, Property<T> property, T value) {
+        if (Objects.nonNull(value)) {
+            property.set(server, value);
+        }
+    }
+
     private void configureAuthenticationPolicies(SshServer server, Shell props) {
         server.setKeyPairProvider(new SimpleGeneratorHostKeyProvider(Paths.get(props.getHostKeyFile())));
         server.setPublickeyAuthenticator(Objects.isNull(props.getPublicKeyFile())
@@ -142,12 +187,15 @@ class SshdServerConfiguration {
     }
 
     private CommandFactory sshCommandFactory(String baseDir) {
-        return (channel, command) -> sshSessionInstance(Optional.ofNullable(baseDir));
+        // Commands passed with exec requests run in exec mode, blank ones fall back to the interactive shell
+        return (channel, command) -> sshSessionInstance(Optional.ofNullable(baseDir),
+                Optional.ofNullable(command).filter(StringUtils::hasText));
     }
 
-    private SshSessionInstance sshSessionInstance(Optional<String> baseDir) {
+    private SshSessionInstance sshSessionInstance(Optional<String> baseDir, Optional<String> execCommand) {
         return new SshSessionInstance(terminalProcessor, baseDir,
-                (clazz, printStream) -> shellBanner.printBanner(environment, clazz, printStream));
+                (clazz, printStream) -> shellBanner.printBanner(environment, clazz, printStream),
+                sessionExecutor, channelWindowOutput, execCommand);
     }
 
     private void configureServerForSshOnly(SshServer server) {
@@ -158,7 +206,7 @@ class SshdServerConfiguration {
         Optional<String> baseDir = properties.getFiletransfer().isEnabled()
                 ? Optional.of(properties.getFilesystem().getBase().getDir())
                 : Optional.empty();
-        server.setShellFactory(channel -> sshSessionInstance(baseDir));
+        server.setShellFactory(channel -> sshSessionInstance(baseDir, Optional.empty()));
     }
 
     @PostConstruct
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.server;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.Locale;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Meter binders are picked up by spring boot actuator and bound to all meter registries.
+ *
+ * @author anand
+ */
+@Configuration
+@ConditionalOnClass(MeterBinder.class)
+@ConditionalOnProperty(name = "sshd.shell.enabled", havingValue = "true")
+class SshdServerMetricsConfiguration {
+
+    @Bean
+    MeterBinder sshdSessionExecutorMetrics(SessionExecutor sessionExecutor) {
+        return registry -> {
+            Gauge.builder("sshd.shell.sessions.active", sessionExecutor, SessionExecutor::getActiveCount)
+                    .description("SSH sessions currently running").register(registry);
+            Gauge.builder("sshd.shell.sessions.queued", sessionExecutor, SessionExecutor::getQueuedCount)
+                    .description("SSH sessions waiting for a thread").register(registry);
+            FunctionCounter.builder("sshd.shell.sessions.started", sessionExecutor,
+                    SessionExecutor::getSubmittedCount)
+                    .description("SSH sessions accepted by the session executor").register(registry);
+            Gauge.builder("sshd.shell.sessions.users", sessionExecutor, SessionExecutor::getUserCount)
+                    .description("Users with SSH sessions").register(registry);
+            for (SessionExecutor.Rejection rejection : SessionExecutor.Rejection.values()) {
+                FunctionCounter.builder("sshd.shell.sessions.rejected", sessionExecutor,
+                        executor -> executor.getRejectedCount(rejection))
+                        .tag("reason", rejection.name().toLowerCase(Locale.ENGLISH))
+                        .description("SSH sessions rejected by session limits or a saturated session executor")
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder sshdChannelWindowOutputMetrics(ChannelWindowOutput channelWindowOutput) {
+        return registry -> {
+            Gauge.builder("sshd.shell.output.pending", channelWindowOutput, ChannelWindowOutput::getPendingBytes)
+                    .baseUnit("bytes").description("Session output waiting for SSH channel window")
+                    .register(registry);
+            FunctionCounter.builder("sshd.shell.output.written", channelWindowOutput,
+                    ChannelWindowOutput::getWrittenBytes)
+                    .baseUnit("bytes").description("Session output written to SSH channels").register(registry);
+            FunctionCounter.builder("sshd.shell.output.window.wait", channelWindowOutput,
+                    ChannelWindowOutput::getWindowWaitSeconds)
+                    .baseUnit("seconds").description("Time spent waiting for SSH channel window")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.Deflater;
+
+/**
+ * Tuning of {@link ZipUtils} archives.
+ *
+ * @author anand
+ */
+@lombok.Value
+@lombok.Builder
+public class ArchiveOptions {
+
+    public static final ArchiveOptions DEFAULT = ArchiveOptions.builder().build();
+
+    /**
+     * Size of I/O buffers.
+     */
+    @lombok.Builder.Default
+    int bufferSize = 256 * 1024;
+    /**
+     * Deflate compression level, 0-9 or -1 for default.
+     */
+    @lombok.Builder.Default
+    int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+    /**
+     * Files with these extensions are already compressed and stored in zip archives without compression.
+     */
+    @lombok.Builder.Default
+    Set<String> storedExtensions = Collections.unmodifiableSet(new HashSet<>(Arrays.asList("zip", "gz", "tgz",
+            "bz2", "xz", "zst", "7z", "jar", "war", "png", "jpg", "jpeg", "gif", "mp4")));
+    /**
+     * Number of threads compressing blocks of gzip files in parallel, 1 to compress on the calling thread.
+     */
+    @lombok.Builder.Default
+    int parallelism = Runtime.getRuntime().availableProcessors();
+    /**
+     * Size of blocks compressed in parallel. Each block is written as a gzip member.
+     */
+    @lombok.Builder.Default
+    int blockSize = 1024 * 1024;
+
+    boolean isStored(String fileName) {
+        int index = fileName.lastIndexOf('.');
+        return index >= 0 && storedExtensions.contains(fileName.substring(index + 1).toLowerCase(Locale.ENGLISH));
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.util;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *
+ * @author anand
+ */
+@lombok.extern.slf4j.Slf4j
+public enum ExecutorUtils {
+    ;
+
+    /**
+     * Virtual thread per task executor if the running JDK supports it (JDK 21+, or 19/20 with preview features
+     * enabled). Looked up reflectively as this library is built for JDK 8.
+     *
+     * @return virtual thread executor if supported
+     */
+    public static Optional<ExecutorService> newVirtualThreadPerTaskExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return Optional.of((ExecutorService) method.invoke(null));
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            log.debug("Virtual threads are not supported by this JVM", ex);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Bounded pool of daemon platform threads. Tasks are queued up to queue capacity once all threads are busy and
+     * rejected thereafter.
+     *
+     * @param threadNamePrefix prefix of thread names
+     * @param maxThreads maximum number of threads
+     * @param queueCapacity maximum number of tasks waiting for a thread, 0 for direct hand-off
+     * @param keepAlive time after which idle threads are released
+     * @return bounded executor
+     */
+    public static ThreadPoolExecutor newBoundedExecutor(String threadNamePrefix, int maxThreads, int queueCapacity,
+            Duration keepAlive) {
+        BlockingQueue<Runnable> queue = queueCapacity > 0
+                ? new LinkedBlockingQueue<>(queueCapacity)
+                : new SynchronousQueue<>();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads, keepAlive.toMillis(),
+                TimeUnit.MILLISECONDS, queue, daemonThreadFactory(threadNamePrefix),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Single daemon thread running scheduled tasks, e.g. timeouts. Tasks cancelled are removed from its queue at once,
+     * as most timeouts are cancelled well before they are due.
+     *
+     * @param threadNamePrefix prefix of thread name
+     * @return scheduled executor
+     */
+    public static ScheduledExecutorService newScheduledExecutor(String threadNamePrefix) {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1,
+                daemonThreadFactory(threadNamePrefix));
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    private static ThreadFactory daemonThreadFactory(String threadNamePrefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, threadNamePrefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
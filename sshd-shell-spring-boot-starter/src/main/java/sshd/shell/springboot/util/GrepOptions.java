@@ -0,0 +1,62 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.util;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.regex.Pattern;
+
+/**
+ * Search of log files with {@link LogFileUtils#grep}.
+ *
+ * @author anand
+ */
+@lombok.Value
+@lombok.Builder
+public class GrepOptions {
+
+    /**
+     * Pattern found in matching lines.
+     */
+    Pattern pattern;
+    /**
+     * Number of lines written before and after each matching line.
+     */
+    int contextLines;
+    /**
+     * If set, only log entries with this timestamp or later are searched.
+     */
+    LocalDateTime from;
+    /**
+     * If set, only log entries with this timestamp or earlier are searched.
+     */
+    LocalDateTime to;
+    /**
+     * Format of timestamp that starts each log entry. Spring Boot logs with this format by default.
+     */
+    @lombok.Builder.Default
+    DateTimeFormatter timestampFormat = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+    /**
+     * Number of threads searching chunks of the log file in parallel, 1 to search on the calling thread.
+     */
+    @lombok.Builder.Default
+    int parallelism = Runtime.getRuntime().availableProcessors();
+    /**
+     * Approximate size of chunks searched in parallel. Chunks are split on line boundaries.
+     */
+    @lombok.Builder.Default
+    int chunkSize = 4 * 1024 * 1024;
+}
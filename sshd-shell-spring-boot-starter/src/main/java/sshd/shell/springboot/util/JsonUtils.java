@@ -15,10 +15,13 @@
  */
 package sshd.shell.springboot.util;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import java.io.IOException;
+import java.io.Writer;
+import sshd.shell.springboot.autoconfiguration.StreamingOutput;
 
 /**
  *
@@ -30,6 +33,7 @@ public enum JsonUtils {
     
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().findAndRegisterModules();
     private static final ObjectWriter WRITER = OBJECT_MAPPER.writer().withDefaultPrettyPrinter();
+    private static final int FLUSH_THRESHOLD = 4096;
     
     public static String asJson(Object object) {
         try {
@@ -40,7 +44,77 @@ public enum JsonUtils {
         }
     }
 
+    /**
+     * Serialize object directly to the writer of output instead of building the whole json in memory.
+     *
+     * @param object object to serialize
+     * @return streaming json output
+     */
+    public static StreamingOutput asStreamingJson(Object object) {
+        return writer -> {
+            try {
+                writeJson(object, writer);
+            } catch (JsonProcessingException ex) {
+                log.error("Error processing json output", ex);
+                writer.write("Error processing json output: " + ex.getMessage());
+            }
+        };
+    }
+
+    /**
+     * Serialize object as pretty printed json to writer. The generator holds no more than its own buffer, which is
+     * handed to the writer and flushed once it reaches {@value #FLUSH_THRESHOLD} characters, so memory is constant
+     * regardless of the size of the object graph and first bytes reach the client immediately. Writer is not closed.
+     *
+     * @param object object to serialize
+     * @param writer writer
+     * @throws IOException if json cannot be processed or written
+     */
+    public static void writeJson(Object object, Writer writer) throws IOException {
+        try (JsonGenerator generator = OBJECT_MAPPER.getFactory().createGenerator(new FlushingWriter(writer))
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            WRITER.writeValue(generator, object);
+        }
+    }
+
     public static <E> E stringToObject(String json, Class<E> clazz) throws IOException {
         return OBJECT_MAPPER.readValue(json, clazz);
     }
+
+    @lombok.RequiredArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+    private static class FlushingWriter extends Writer {
+
+        private final Writer writer;
+        private int pending;
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            writer.write(cbuf, off, len);
+            flushIfThresholdReached(len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            writer.write(str, off, len);
+            flushIfThresholdReached(len);
+        }
+
+        private void flushIfThresholdReached(int written) throws IOException {
+            pending += written;
+            if (pending >= FLUSH_THRESHOLD) {
+                flush();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            pending = 0;
+            writer.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
 }
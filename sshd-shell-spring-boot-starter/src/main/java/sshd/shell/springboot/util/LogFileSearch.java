@@ -0,0 +1,257 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.util;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Searches a log file in chunks split on line boundaries. With parallelism above 1, chunks are searched in parallel
+ * and their matches written in order. Log entries are appended in time order, so the region between timestamps is
+ * found by binary search over entry timestamps, reading a few lines per probe instead of the file up to the region.
+ *
+ * @author anand
+ */
+@lombok.RequiredArgsConstructor(access = lombok.AccessLevel.PACKAGE)
+class LogFileSearch {
+
+    private static final int TIMESTAMP_PREFIX_SIZE = 64;
+    private static final String SEPARATOR = "--\n";
+    private final FileChannel channel;
+    private final GrepOptions options;
+    private long lastWrittenEnd = -1;
+
+    void grep(Writer writer) throws IOException {
+        long start = Objects.isNull(options.getFrom()) ? 0 : seek(options.getFrom(), false);
+        long end = Objects.isNull(options.getTo()) ? channel.size() : seek(options.getTo(), true);
+        if (options.getParallelism() > 1) {
+            searchChunksInParallel(start, end, writer);
+        } else {
+            for (long chunkStart = start; chunkStart < end;) {
+                long chunkEnd = chunkEnd(chunkStart, end);
+                write(search(chunkStart, chunkEnd, start, end), writer);
+                chunkStart = chunkEnd;
+            }
+        }
+    }
+
+    private void searchChunksInParallel(long start, long end, Writer writer) throws IOException {
+        ThreadPoolExecutor executor = ExecutorUtils.newBoundedExecutor("log-grep-", options.getParallelism(),
+                2 * options.getParallelism(), Duration.ofSeconds(1));
+        // Chunks in flight are bounded to keep memory at a few chunks per thread
+        Deque<Future<List<Line>>> pending = new ArrayDeque<>();
+        try {
+            for (long chunkStart = start; chunkStart < end;) {
+                long from = chunkStart;
+                long to = chunkEnd(chunkStart, end);
+                if (pending.size() == 2 * options.getParallelism()) {
+                    write(pending.poll(), writer);
+                }
+                pending.add(executor.submit(() -> search(from, to, start, end)));
+                chunkStart = to;
+            }
+            while (!pending.isEmpty()) {
+                write(pending.poll(), writer);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long chunkEnd(long chunkStart, long end) throws IOException {
+        return Math.min(end, LogFileUtils.linesAfter(channel, chunkStart + options.getChunkSize() - 1, 1));
+    }
+
+    /**
+     * Lines of chunk matching pattern, with context lines that may lie in neighbouring chunks but not outside the
+     * searched region.
+     */
+    private List<Line> search(long chunkStart, long chunkEnd, long start, long end) throws IOException {
+        int context = options.getContextLines();
+        long from = Math.max(start, LogFileUtils.linesBefore(channel, chunkStart, context));
+        long to = Math.min(end, LogFileUtils.linesAfter(channel, chunkEnd, context));
+        byte[] bytes = read(from, to);
+        int[] lineStarts = lineStarts(bytes);
+        int lineCount = lineStarts.length - 1;
+        boolean[] selected = new boolean[lineCount];
+        for (int i = 0; i < lineCount; i++) {
+            long offset = from + lineStarts[i];
+            if (offset >= chunkStart && offset < chunkEnd
+                    && options.getPattern().matcher(text(bytes, lineStarts, i)).find()) {
+                for (int j = Math.max(0, i - context); j <= Math.min(lineCount - 1, i + context); j++) {
+                    selected[j] = true;
+                }
+            }
+        }
+        List<Line> lines = new ArrayList<>();
+        for (int i = 0; i < lineCount; i++) {
+            if (selected[i]) {
+                lines.add(new Line(from + lineStarts[i], from + lineStarts[i + 1], text(bytes, lineStarts, i)));
+            }
+        }
+        return lines;
+    }
+
+    private byte[] read(long from, long to) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (to - from));
+        while (buffer.hasRemaining() && channel.read(buffer, from + buffer.position()) >= 0) {
+            // Fill buffer
+        }
+        return buffer.array();
+    }
+
+    /**
+     * @return start of each line followed by end of last line
+     */
+    private static int[] lineStarts(byte[] bytes) {
+        int count = 0;
+        for (byte b : bytes) {
+            if (b == '\n') {
+                count++;
+            }
+        }
+        boolean unterminated = bytes.length > 0 && bytes[bytes.length - 1] != '\n';
+        int[] lineStarts = new int[count + (unterminated ? 2 : 1)];
+        int line = 1;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                lineStarts[line++] = i + 1;
+            }
+        }
+        lineStarts[lineStarts.length - 1] = bytes.length;
+        return lineStarts;
+    }
+
+    private static String text(byte[] bytes, int[] lineStarts, int line) {
+        int start = lineStarts[line];
+        int end = lineStarts[line + 1];
+        while (end > start && (bytes[end - 1] == '\n' || bytes[end - 1] == '\r')) {
+            end--;
+        }
+        return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    private void write(Future<List<Line>> lines, Writer writer) throws IOException {
+        try {
+            write(lines.get(), writer);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while searching");
+        } catch (ExecutionException ex) {
+            throw new IOException("Error searching log file", ex.getCause());
+        }
+    }
+
+    /**
+     * Context lines of neighbouring chunks overlap and are written once. Non-contiguous groups of lines are
+     * separated as grep does.
+     */
+    private void write(List<Line> lines, Writer writer) throws IOException {
+        for (Line line : lines) {
+            if (line.end <= lastWrittenEnd) {
+                continue;
+            }
+            if (options.getContextLines() > 0 && lastWrittenEnd >= 0 && line.offset > lastWrittenEnd) {
+                writer.write(SEPARATOR);
+            }
+            writer.write(line.text);
+            writer.write('\n');
+            lastWrittenEnd = line.end;
+        }
+        writer.flush();
+    }
+
+    /**
+     * @param exclusive whether entries with the given time are before the offset sought
+     * @return offset of first log entry after the given time
+     */
+    private long seek(LocalDateTime time, boolean exclusive) throws IOException {
+        long low = 0;
+        long high = channel.size();
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            Entry entry = nextEntry(mid);
+            if (Objects.isNull(entry) || isAfter(entry.timestamp, time, exclusive)) {
+                high = mid;
+            } else {
+                low = entry.offset + 1;
+            }
+        }
+        Entry entry = nextEntry(low);
+        return Objects.isNull(entry) ? channel.size() : entry.offset;
+    }
+
+    private static boolean isAfter(LocalDateTime timestamp, LocalDateTime time, boolean exclusive) {
+        return exclusive ? timestamp.isAfter(time) : !timestamp.isBefore(time);
+    }
+
+    /**
+     * First line at or after position that starts with a timestamp. Lines without one, such as stack traces, belong
+     * to the entry before them.
+     */
+    private Entry nextEntry(long position) throws IOException {
+        long size = channel.size();
+        long offset = position == 0 ? 0 : LogFileUtils.linesAfter(channel, position - 1, 1);
+        while (offset < size) {
+            LocalDateTime timestamp = parseTimestamp(read(offset, Math.min(size, offset + TIMESTAMP_PREFIX_SIZE)));
+            if (Objects.nonNull(timestamp)) {
+                return new Entry(offset, timestamp);
+            }
+            offset = LogFileUtils.linesAfter(channel, offset, 1);
+        }
+        return null;
+    }
+
+    private LocalDateTime parseTimestamp(byte[] prefix) {
+        try {
+            return LocalDateTime.from(options.getTimestampFormat()
+                    .parse(new String(prefix, StandardCharsets.UTF_8), new ParsePosition(0)));
+        } catch (DateTimeException ex) {
+            return null;
+        }
+    }
+
+    @lombok.AllArgsConstructor
+    private static class Line {
+
+        private final long offset;
+        private final long end;
+        private final String text;
+    }
+
+    @lombok.AllArgsConstructor
+    private static class Entry {
+
+        private final long offset;
+        private final LocalDateTime timestamp;
+    }
+}
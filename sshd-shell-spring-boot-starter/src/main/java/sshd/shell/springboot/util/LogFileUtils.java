@@ -0,0 +1,244 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import org.springframework.util.Assert;
+
+/**
+ * Reads regions of log files without reading the whole file. Cost of each operation depends on the size of the
+ * output, not the size of the file.
+ *
+ * @author anand
+ */
+public enum LogFileUtils {
+    ;
+
+    private static final int SCAN_WINDOW_SIZE = 64 * 1024;
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Write last lines of file.
+     *
+     * @param file log file
+     * @param lines number of lines
+     * @param writer writer to write lines to
+     * @throws IOException on error reading file or writing lines
+     */
+    public static void tail(Path file, int lines, Writer writer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            copy(channel, linesBefore(channel, channel.size(), lines), channel.size(), writer, true);
+        }
+    }
+
+    /**
+     * Write bytes of file between offsets. Offsets beyond the end of file are truncated to the size of the file.
+     *
+     * @param file log file
+     * @param from offset of first byte, inclusive
+     * @param to offset of last byte, exclusive
+     * @param writer writer to write content to
+     * @throws IOException on error reading file or writing content
+     */
+    public static void range(Path file, long from, long to, Writer writer) throws IOException {
+        Assert.isTrue(from >= 0 && from <= to, "Invalid range");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            copy(channel, Math.min(from, size), Math.min(to, size), writer, true);
+        }
+    }
+
+    /**
+     * Write lines of file matching pattern, as grep does.
+     *
+     * @param file log file
+     * @param options search options
+     * @param writer writer to write matching lines to, flushed as lines are found
+     * @throws IOException on error reading file or writing lines
+     */
+    public static void grep(Path file, GrepOptions options, Writer writer) throws IOException {
+        Assert.notNull(options.getPattern(), "Pattern is required");
+        Assert.isTrue(options.getChunkSize() > 0, "Chunk size must be positive");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            new LogFileSearch(channel, options).grep(writer);
+        }
+    }
+
+    /**
+     * Write last lines of file and then content appended to it, until the calling thread is interrupted. A file that
+     * is truncated or replaced, as log files are on rotation, is followed from its start.
+     *
+     * @param file log file
+     * @param lines number of lines written before following
+     * @param pollInterval interval between checks for appended content
+     * @param writer writer to write content to, flushed after each write
+     * @throws IOException on error reading file or writing content
+     */
+    public static void follow(Path file, int lines, Duration pollInterval, Writer writer) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            Object fileKey = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+            long position = copy(channel, linesBefore(channel, channel.size(), lines), channel.size(), writer, false);
+            writer.flush();
+            while (sleep(pollInterval)) {
+                BasicFileAttributes attributes = readAttributes(file);
+                if (Objects.isNull(attributes)) {
+                    continue; // Rotation in progress
+                }
+                if (!Objects.equals(fileKey, attributes.fileKey()) || attributes.size() < position) {
+                    copy(channel, position, channel.size(), writer, true);
+                    channel.close();
+                    channel = FileChannel.open(file, StandardOpenOption.READ);
+                    fileKey = attributes.fileKey();
+                    position = 0;
+                }
+                position = copy(channel, position, channel.size(), writer, false);
+                writer.flush();
+            }
+        } catch (ClosedByInterruptException ex) {
+            // Interrupted while reading, following ends
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static boolean sleep(Duration duration) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(duration.toMillis());
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static BasicFileAttributes readAttributes(Path file) throws IOException {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Scans file backwards from end through memory mapped windows counting line terminators. A terminator just before
+     * end ends the last line and is not counted.
+     *
+     * @return offset of first of the lines before end
+     */
+    static long linesBefore(FileChannel channel, long end, int lines) throws IOException {
+        if (lines <= 0) {
+            return end;
+        }
+        int terminators = 0;
+        long windowEnd = end;
+        while (windowEnd > 0) {
+            long start = Math.max(0, windowEnd - SCAN_WINDOW_SIZE);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, start, windowEnd - start);
+            for (int i = (int) (windowEnd - start) - 1; i >= 0; i--) {
+                if (window.get(i) == '\n' && start + i != end - 1 && ++terminators == lines) {
+                    return start + i + 1;
+                }
+            }
+            windowEnd = start;
+        }
+        return 0;
+    }
+
+    /**
+     * Scans file forwards from start through memory mapped windows counting line terminators.
+     *
+     * @return offset after the terminator of the last of the lines after start, or end of file
+     */
+    static long linesAfter(FileChannel channel, long start, int lines) throws IOException {
+        long size = channel.size();
+        if (lines <= 0) {
+            return start;
+        }
+        int terminators = 0;
+        long windowStart = start;
+        while (windowStart < size) {
+            long end = Math.min(size, windowStart + SCAN_WINDOW_SIZE);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, end - windowStart);
+            for (int i = 0; i < end - windowStart; i++) {
+                if (window.get(i) == '\n' && ++terminators == lines) {
+                    return windowStart + i + 1;
+                }
+            }
+            windowStart = end;
+        }
+        return size;
+    }
+
+    /**
+     * Decodes bytes as UTF-8 with positional reads, so that the channel position is left untouched. Bytes of a
+     * character split across reads are carried over to the next read. Unless at end of input, bytes of a character
+     * still being appended are left unread.
+     *
+     * @return offset after last byte decoded
+     */
+    private static long copy(FileChannel channel, long from, long to, Writer writer, boolean endOfInput)
+            throws IOException {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+        CharBuffer out = CharBuffer.allocate(BUFFER_SIZE);
+        long position = from;
+        while (position < to) {
+            in.limit(in.position() + (int) Math.min(in.remaining(), to - position));
+            int read = channel.read(in, position);
+            if (read < 0) {
+                break;
+            }
+            position += read;
+            in.flip();
+            decoder.decode(in, out, false);
+            in.compact();
+            write(out, writer);
+        }
+        in.flip();
+        if (endOfInput) {
+            decoder.decode(in, out, true);
+            decoder.flush(out);
+            write(out, writer);
+        }
+        return position - in.remaining();
+    }
+
+    private static void write(CharBuffer chars, Writer writer) throws IOException {
+        chars.flip();
+        writer.write(chars.array(), 0, chars.limit());
+        chars.clear();
+    }
+}
@@ -15,30 +15,57 @@
  */
 package sshd.shell.springboot.util;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 import org.springframework.util.Assert;
 
 /**
+ * Zip and gzip archives. Zip entries are written sequentially as ZipOutputStream cannot take entries compressed
+ * elsewhere; gzip files are compressed block-parallel across cores as a multi-member gzip.
  *
  * @author anand
  */
 public enum ZipUtils {
     ;
-    
+
     public static Path zipFiles(Path dirToStoreZipFile, boolean isDeleteOriginalFiles, Path... filesToZip) throws
             IOException {
+        return zipFiles(dirToStoreZipFile, isDeleteOriginalFiles, ArchiveOptions.DEFAULT, filesToZip);
+    }
+
+    public static Path zipFiles(Path dirToStoreZipFile, boolean isDeleteOriginalFiles, ArchiveOptions options,
+            Path... filesToZip) throws IOException {
         validate(dirToStoreZipFile, filesToZip);
         String zipFileName = getZipFileName(filesToZip);
         Path zipFilePath = dirToStoreZipFile.resolve(zipFileName);
-        runZipOperation(zipFilePath, filesToZip);
+        runZipOperation(zipFilePath, options, filesToZip);
         cleanUp(isDeleteOriginalFiles, filesToZip);
         return zipFilePath;
     }
@@ -55,27 +82,251 @@ public enum ZipUtils {
                 : "Files " + LocalDateTime.now().toString()) + ".zip";
     }
 
-    private static void runZipOperation(Path zipFilePath, Path[] filesToZip) throws IOException {
-        try (FileOutputStream fos = new FileOutputStream(zipFilePath.toFile());
-                ZipOutputStream zipOut = new ZipOutputStream(fos)) {
+    private static void runZipOperation(Path zipFilePath, ArchiveOptions options, Path[] filesToZip)
+            throws IOException {
+        try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(zipFilePath), options.getBufferSize());
+                ZipOutputStream zipOut = new ZipOutputStream(os)) {
+            zipOut.setLevel(options.getCompressionLevel());
             for (Path fileToZip : filesToZip) {
-                addZipEntriesIntoZipFile(fileToZip, zipOut);
+                addZipEntriesIntoZipFile(fileToZip, zipOut, options);
+            }
+        }
+    }
+
+    private static void addZipEntriesIntoZipFile(Path fileToZip, ZipOutputStream zipOut, ArchiveOptions options)
+            throws IOException {
+        String fileName = fileToZip.getFileName().toString();
+        ZipEntry zipEntry = new ZipEntry(fileName);
+        if (options.isStored(fileName)) {
+            // Already compressed, deflating again costs CPU for no gain
+            zipEntry.setMethod(ZipEntry.STORED);
+            zipEntry.setSize(Files.size(fileToZip));
+            zipEntry.setCrc(crc(fileToZip, options.getBufferSize()));
+        }
+        zipOut.putNextEntry(zipEntry);
+        Files.copy(fileToZip, zipOut);
+        zipOut.closeEntry();
+    }
+
+    private static long crc(Path file, int bufferSize) throws IOException {
+        CRC32 crc = new CRC32();
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+            while (in.read(buffer) >= 0) {
+                buffer.flip();
+                crc.update(buffer.array(), 0, buffer.limit());
+                buffer.clear();
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Gzip file with default options.
+     *
+     * @param source file to compress
+     * @param target gzip file to write
+     * @param progress receives the number of source bytes compressed so far
+     * @throws IOException on error reading or writing files
+     * @see #gzipFile(Path, Path, ArchiveOptions, LongConsumer)
+     */
+    public static void gzipFile(Path source, Path target, LongConsumer progress) throws IOException {
+        gzipFile(source, target, ArchiveOptions.DEFAULT, progress);
+    }
+
+    /**
+     * Gzip file reading the source through a file channel. Compressed output is written straight to target so that
+     * it can be downloaded while it is being produced. With parallelism above 1, blocks of the source are compressed
+     * in parallel and written in order as gzip members (as pigz does), which any gzip reader decompresses as one.
+     *
+     * @param source file to compress
+     * @param target gzip file to write
+     * @param options archive options
+     * @param progress receives the number of source bytes compressed so far
+     * @throws IOException on error reading or writing files
+     */
+    public static void gzipFile(Path source, Path target, ArchiveOptions options, LongConsumer progress)
+            throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                OutputStream out = Files.newOutputStream(target)) {
+            if (options.getParallelism() > 1) {
+                gzipBlocksInParallel(in, out, options, progress);
+            } else {
+                gzipSequentially(in, out, options, progress);
             }
         }
     }
 
-    private static void addZipEntriesIntoZipFile(Path fileToZip, final ZipOutputStream zipOut) throws IOException {
-        try (FileInputStream fis = new FileInputStream(fileToZip.toFile())) {
-            ZipEntry zipEntry = new ZipEntry(fileToZip.toFile().getName());
-            zipOut.putNextEntry(zipEntry);
-            byte[] bytes = new byte[1024];
+    private static void gzipSequentially(FileChannel in, OutputStream out, ArchiveOptions options,
+            LongConsumer progress) throws IOException {
+        try (GzipMemberWriter gzip = new GzipMemberWriter(options)) {
+            gzip.start(out);
+            ByteBuffer buffer = ByteBuffer.allocate(options.getBufferSize());
+            long bytesRead = 0;
             int length;
-            while ((length = fis.read(bytes)) >= 0) {
-                zipOut.write(bytes, 0, length);
+            while ((length = in.read(buffer)) >= 0) {
+                gzip.write(out, buffer.array(), length);
+                buffer.clear();
+                bytesRead += length;
+                progress.accept(bytesRead);
+            }
+            gzip.finish(out);
+        }
+    }
+
+    private static void gzipBlocksInParallel(FileChannel in, OutputStream out, ArchiveOptions options,
+            LongConsumer progress) throws IOException {
+        ThreadPoolExecutor executor = ExecutorUtils.newBoundedExecutor("gzip-", options.getParallelism(),
+                2 * options.getParallelism(), Duration.ofSeconds(1));
+        // Blocks in flight are bounded to keep memory at a few blocks per thread
+        Deque<CompressedBlock> pending = new ArrayDeque<>();
+        // Writers not in use, at most one per thread, reused across blocks
+        Deque<GzipMemberWriter> writers = new ConcurrentLinkedDeque<>();
+        long bytesCompressed = 0;
+        try {
+            byte[] block;
+            while ((block = readBlock(in, options.getBlockSize())).length > 0) {
+                byte[] input = block;
+                if (pending.size() == 2 * options.getParallelism()) {
+                    bytesCompressed += writeBlock(pending.poll(), out, progress, bytesCompressed);
+                }
+                pending.add(new CompressedBlock(input.length,
+                        executor.submit(() -> gzipBlock(input, options, writers))));
+            }
+            while (!pending.isEmpty()) {
+                bytesCompressed += writeBlock(pending.poll(), out, progress, bytesCompressed);
             }
+            if (bytesCompressed == 0) {
+                // Empty source still needs a valid gzip member
+                out.write(gzipBlock(new byte[0], options, writers));
+            }
+        } finally {
+            executor.shutdownNow();
+            awaitTermination(executor);
+            writers.forEach(GzipMemberWriter::close);
         }
     }
 
+    private static byte[] readBlock(FileChannel in, int blockSize) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(blockSize);
+        while (buffer.hasRemaining() && in.read(buffer) >= 0) {
+            // Fill block
+        }
+        return buffer.position() == blockSize
+                ? buffer.array()
+                : Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    private static int writeBlock(CompressedBlock block, OutputStream out, LongConsumer progress,
+            long bytesCompressed) throws IOException {
+        try {
+            out.write(block.member.get());
+            progress.accept(bytesCompressed + block.length);
+            return block.length;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing");
+        } catch (ExecutionException ex) {
+            throw new IOException("Error compressing block", ex.getCause());
+        }
+    }
+
+    private static byte[] gzipBlock(byte[] block, ArchiveOptions options, Deque<GzipMemberWriter> writers)
+            throws IOException {
+        GzipMemberWriter gzip = writers.poll();
+        if (Objects.isNull(gzip)) {
+            gzip = new GzipMemberWriter(options);
+        }
+        try {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream(block.length / 2);
+            gzip.start(baos);
+            gzip.write(baos, block, block.length);
+            gzip.finish(baos);
+            return baos.toByteArray();
+        } finally {
+            writers.push(gzip);
+        }
+    }
+
+    /**
+     * Workers return their writer when a block is done, so once they have terminated all writers can be closed.
+     */
+    private static void awaitTermination(ExecutorService executor) {
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes gzip members (RFC 1952) with a single Deflater that is reset for each member and ended when closed, so
+     * that native zlib memory is released right away rather than when the Deflater is garbage collected.
+     */
+    private static class GzipMemberWriter implements Closeable {
+
+        private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+        private final Deflater deflater;
+        private final CRC32 crc = new CRC32();
+        private final byte[] buffer;
+
+        GzipMemberWriter(ArchiveOptions options) {
+            this.deflater = new Deflater(options.getCompressionLevel(), true);
+            this.buffer = new byte[options.getBufferSize()];
+        }
+
+        void start(OutputStream out) throws IOException {
+            deflater.reset();
+            crc.reset();
+            out.write(HEADER);
+        }
+
+        void write(OutputStream out, byte[] input, int length) throws IOException {
+            crc.update(input, 0, length);
+            deflater.setInput(input, 0, length);
+            while (!deflater.needsInput()) {
+                deflate(out);
+            }
+        }
+
+        void finish(OutputStream out) throws IOException {
+            deflater.finish();
+            while (!deflater.finished()) {
+                deflate(out);
+            }
+            writeIntLittleEndian(out, crc.getValue());
+            writeIntLittleEndian(out, deflater.getBytesRead());
+        }
+
+        private void deflate(OutputStream out) throws IOException {
+            int length = deflater.deflate(buffer, 0, buffer.length);
+            if (length > 0) {
+                out.write(buffer, 0, length);
+            }
+        }
+
+        /**
+         * Trailer fields are the low 32 bits of CRC and input size.
+         */
+        private static void writeIntLittleEndian(OutputStream out, long value) throws IOException {
+            for (int i = 0; i < 4; i++) {
+                out.write((int) (value >>> (8 * i)) & 0xff);
+            }
+        }
+
+        @Override
+        public void close() {
+            deflater.end();
+        }
+    }
+
+    @lombok.AllArgsConstructor
+    private static class CompressedBlock {
+
+        private final int length;
+        private final Future<byte[]> member;
+    }
+
     private static void cleanUp(boolean isDeleteOriginalFiles, Path[] filesToZip) throws IOException {
         if (isDeleteOriginalFiles) {
             for (Path fileToZip : filesToZip) {
@@ -16,6 +16,7 @@
 package sshd.shell.springboot.autoconfiguration;
 
 import com.jcraft.jsch.Channel;
+import com.jcraft.jsch.ChannelExec;
 import com.jcraft.jsch.JSch;
 import com.jcraft.jsch.JSchException;
 import com.jcraft.jsch.Session;
@@ -27,11 +28,13 @@ import java.io.PipedOutputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 import static org.awaitility.Awaitility.await;
 import static org.junit.Assert.fail;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.util.StreamUtils;
 
 /**
  *
@@ -80,6 +83,26 @@ abstract class AbstractSshSupport {
         sshCall(props.getShell().getUsername(), props.getShell().getPassword(), executor, "shell");
     }
 
+    ExecResult sshCallExec(String command) {
+        try {
+            Session session = openSession(props.getShell().getUsername(), props.getShell().getPassword());
+            ChannelExec channel = (ChannelExec) session.openChannel("exec");
+            channel.setCommand(command);
+            try (InputStream is = channel.getInputStream()) {
+                channel.connect();
+                String output = StreamUtils.copyToString(is, StandardCharsets.UTF_8);
+                await().atMost(Duration.ofSeconds(10)).until(channel::isClosed);
+                return new ExecResult(channel.getExitStatus(), output);
+            } finally {
+                channel.disconnect();
+                session.disconnect();
+            }
+        } catch (JSchException | IOException ex) {
+            fail(ex.toString());
+            return null;
+        }
+    }
+
     void verifyResponseContains(InputStream pis, String response) {
         verifyResponseContains(pis, response, Duration.ofSeconds(10));
     }
@@ -102,6 +125,15 @@ abstract class AbstractSshSupport {
         }
     }
 
+    void pause(Duration duration) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(duration.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            fail(ex.toString());
+        }
+    }
+
     void write(OutputStream os, String... input) throws IOException {
         for (String s : input) {
             os.write((s + '\r').getBytes(StandardCharsets.UTF_8));
@@ -109,6 +141,13 @@ abstract class AbstractSshSupport {
         }
     }
 
+    @lombok.Value
+    static class ExecResult {
+
+        int exitStatus;
+        String output;
+    }
+
     @FunctionalInterface
     static interface SshExecutor {
 
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.autoconfiguration;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import org.junit.Test;
+import sshd.shell.springboot.ShellException;
+import sshd.shell.springboot.autoconfiguration.SshdShellProperties.Shell.Command;
+
+/**
+ *
+ * @author anand
+ */
+public class CommandAdmissionTest {
+
+    private CommandAdmission newAdmission(int permits, Duration queueTimeout) {
+        Command props = new Command();
+        props.setPermits(permits);
+        props.getWeights().put("heapDump", 3);
+        props.getWeights().put("beans", 1);
+        props.getWeights().put("beans.list", 0);
+        props.setQueueTimeout(queueTimeout);
+        return new CommandAdmission(props);
+    }
+
+    @Test
+    public void testWeights() {
+        CommandAdmission admission = newAdmission(2, Duration.ofSeconds(1));
+        assertEquals(2, admission.weight("heapDump"));
+        assertEquals(2, admission.weight("heapDump.live"));
+        assertEquals(1, admission.weight("beans"));
+        assertEquals(0, admission.weight("beans.list"));
+        assertEquals(0, admission.weight("health"));
+        assertEquals(0, newAdmission(0, Duration.ofSeconds(1)).weight("heapDump"));
+    }
+
+    @Test
+    public void testRejectedAfterQueueTimeout() throws InterruptedException, ShellException {
+        CommandAdmission admission = newAdmission(2, Duration.ofMillis(50));
+        admission.acquire("heapDump", 2);
+        try {
+            admission.acquire("beans", 1);
+            throw new AssertionError("Command should have been rejected");
+        } catch (ShellException ex) {
+            assertEquals("Too many heavy commands running, beans was not admitted within 50ms. Please try again later",
+                    ex.getMessage());
+        }
+        admission.release(2);
+        admission.acquire("beans", 1);
+        assertEquals(2, admission.getAdmittedCount());
+        assertEquals(1, admission.getRejectedCount());
+        assertEquals(1, admission.getAvailablePermits());
+    }
+
+    @Test
+    public void testWaitingCommandsAdmittedInOrder() throws Exception {
+        CommandAdmission admission = newAdmission(2, Duration.ofSeconds(10));
+        admission.acquire("heapDump", 2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CountDownLatch heavyQueued = new CountDownLatch(1);
+            Future<?> heavy = executor.submit(() -> {
+                heavyQueued.countDown();
+                admission.acquire("heapDump", 2);
+                return null;
+            });
+            heavyQueued.await();
+            while (admission.getQueueLength() == 0) {
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+            Future<?> light = executor.submit(() -> {
+                admission.acquire("beans", 1);
+                return null;
+            });
+            while (admission.getQueueLength() < 2) {
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+            admission.release(1);
+            TimeUnit.MILLISECONDS.sleep(100);
+            assertFalse("Light command must not overtake the heavy one queued before it", light.isDone());
+            admission.release(1);
+            heavy.get(5, TimeUnit.SECONDS);
+            admission.release(2);
+            light.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.autoconfiguration;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+import org.springframework.util.unit.DataSize;
+import sshd.shell.springboot.ShellException;
+import sshd.shell.springboot.autoconfiguration.SshdShellProperties.Shell.Cache;
+
+/**
+ *
+ * @author anand
+ */
+public class CommandResultCacheTest {
+
+    private final AtomicInteger executions = new AtomicInteger();
+    private final CommandExecutor commandExecutor = arg -> StreamingOutput.of(arg + executions.incrementAndGet());
+
+    private CommandResultCache newCache(Duration ttl, int maxEntries) {
+        return newCache(ttl, maxEntries, DataSize.ofMegabytes(1));
+    }
+
+    private CommandResultCache newCache(Duration ttl, int maxEntries, DataSize maxWeight) {
+        Cache props = new Cache();
+        props.setEnabled(true);
+        props.getTtl().put("beans", ttl);
+        props.setMaxEntries(maxEntries);
+        props.setMaxWeight(maxWeight);
+        return new CommandResultCache(props);
+    }
+
+    @Test
+    public void testCommandWithoutTtlIsNotCached() {
+        CommandResultCache cache = newCache(Duration.ofMinutes(1), 10);
+        assertSame(commandExecutor, cache.decorate("mappings", commandExecutor));
+    }
+
+    @Test
+    public void testCacheHitAndMiss() throws InterruptedException, ShellException {
+        CommandResultCache cache = newCache(Duration.ofMinutes(1), 10);
+        CommandExecutor cached = cache.decorate("beans", commandExecutor);
+        assertEquals("a1", cached.get("a").asString());
+        assertEquals("a1", cached.get("a").asString());
+        assertEquals("b2", cached.get("b").asString());
+        assertEquals(1, cache.getHitCount("beans"));
+        assertEquals(2, cache.getMissCount("beans"));
+        assertEquals(8, cache.getWeight());
+    }
+
+    @Test
+    public void testExpiredEntryIsExecutedAgain() throws InterruptedException, ShellException {
+        CommandResultCache cache = newCache(Duration.ZERO, 10);
+        CommandExecutor cached = cache.decorate("beans", commandExecutor);
+        assertEquals("a1", cached.get("a").asString());
+        assertEquals("a2", cached.get("a").asString());
+        assertEquals(0, cache.getHitCount("beans"));
+        assertEquals(4, cache.getWeight());
+    }
+
+    @Test
+    public void testEvictionByMaxEntries() throws InterruptedException, ShellException {
+        CommandResultCache cache = newCache(Duration.ofMinutes(1), 1);
+        CommandExecutor cached = cache.decorate("beans", commandExecutor);
+        cached.get("a");
+        cached.get("b");
+        assertEquals(1, cache.getSize());
+        assertEquals("b2", cached.get("b").asString());
+        assertEquals("a3", cached.get("a").asString());
+    }
+
+    @Test
+    public void testOutputLargerThanMaxWeightIsStreamedUncached() throws InterruptedException, ShellException {
+        CommandResultCache cache = newCache(Duration.ofMinutes(1), 10, DataSize.ofBytes(10));
+        AtomicInteger written = new AtomicInteger();
+        CommandExecutor cached = cache.decorate("beans", arg -> {
+            executions.incrementAndGet();
+            return writer -> {
+                for (int i = 0; i < 100; i++) {
+                    written.incrementAndGet();
+                    writer.write(arg);
+                }
+            };
+        });
+        StreamingOutput output = cached.get("a");
+        assertEquals(6, written.get()); // Collection stopped once output exceeded max weight
+        assertEquals(String.join("", Collections.nCopies(100, "a")), output.asString());
+        assertEquals(0, cache.getWeight());
+        assertEquals(100, cached.get("a").asString().length());
+        assertEquals(3, executions.get()); // Later requests are not collected again
+        assertEquals(0, cache.getHitCount("beans"));
+    }
+
+    @Test
+    public void testFailedExecutionIsNotCached() throws InterruptedException, ShellException {
+        CommandResultCache cache = newCache(Duration.ofMinutes(1), 10);
+        CommandExecutor cached = cache.decorate("beans", arg -> {
+            if (executions.incrementAndGet() == 1) {
+                throw new ShellException("transient");
+            }
+            return writer -> {
+                if (executions.get() == 2) {
+                    writer.write("partial");
+                    throw new IOException("failed while writing");
+                }
+                writer.write(arg + executions.get());
+            };
+        });
+        try {
+            cached.get("a");
+            fail("Expected ShellException");
+        } catch (ShellException ex) {
+            assertEquals("transient", ex.getMessage());
+        }
+        StringWriter writer = new StringWriter();
+        try {
+            cached.get("a").writeTo(writer);
+            fail("Expected IOException");
+        } catch (IOException ex) {
+            assertEquals("partial", writer.toString());
+        }
+        assertEquals(0, cache.getSize());
+        assertEquals("a3", cached.get("a").asString());
+        assertEquals("a3", cached.get("a").asString());
+        assertEquals(3, executions.get());
+    }
+
+    @Test
+    public void testConcurrentRequestsExecuteOnce() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CommandResultCache cache = newCache(Duration.ofMinutes(1), 10);
+        CommandExecutor cached = cache.decorate("beans", arg -> {
+            started.countDown();
+            release.await();
+            return commandExecutor.get(arg);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> cached.get("a").asString());
+            started.await();
+            Future<String> second = executor.submit(() -> cached.get("a").asString());
+            TimeUnit.MILLISECONDS.sleep(100);
+            release.countDown();
+            assertEquals("a1", first.get());
+            assertEquals("a1", second.get());
+            assertEquals(1, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.autoconfiguration;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Test;
+import sshd.shell.springboot.ShellException;
+import sshd.shell.springboot.autoconfiguration.SshdShellProperties.Shell.Command;
+
+/**
+ *
+ * @author anand
+ */
+public class CommandRunnerTest {
+
+    private final CountDownLatch end = new CountDownLatch(1);
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Command props = newProps();
+    private final CommandAdmission admission = new CommandAdmission(props);
+    private final CommandRunner commandRunner = new CommandRunner(props, admission, executor);
+
+    private static Command newProps() {
+        Command props = new Command();
+        props.setPermits(4);
+        props.getWeights().put("heapDump", 3);
+        return props;
+    }
+
+    @After
+    public void shutdown() {
+        end.countDown();
+        commandRunner.shutdown();
+    }
+
+    @Test
+    public void testPermitsReturnedWhenQueuedCommandIsCancelled() throws Exception {
+        // Only thread is taken, so that the command is queued until it times out
+        executor.execute(this::awaitEnd);
+        AtomicInteger runs = new AtomicInteger();
+        CommandExecutor heapDump = arg -> {
+            runs.incrementAndGet();
+            return StreamingOutput.of("dumped");
+        };
+        try {
+            run("heapDump", 50, heapDump);
+            throw new AssertionError("Command should have timed out");
+        } catch (ShellException ex) {
+            assertEquals("Command timed out after 50ms", ex.getMessage());
+        }
+        assertEquals(4, admission.getAvailablePermits());
+        end.countDown();
+        assertEquals("dumped", run("heapDump", 0, heapDump).asString());
+        assertEquals(1, runs.get());
+        assertEquals(4, admission.getAvailablePermits());
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void testPermitsHeldUntilOutputIsWritten() throws Exception {
+        StreamingOutput output = run("heapDump", 0, arg -> writer -> {
+            assertEquals(1, admission.getAvailablePermits());
+            writer.write("dumped");
+        });
+        assertEquals(1, admission.getAvailablePermits());
+        assertEquals("dumped", output.asString());
+        assertEquals(4, admission.getAvailablePermits());
+    }
+
+    @Test
+    public void testTimeoutCoversWritingOutput() throws Exception {
+        CommandExecutor sample = arg -> writer -> {
+            writer.write("sample 1\n");
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException ex) {
+                return; // Stops without failing, as sampling commands do
+            }
+            writer.write("sample 2\n");
+        };
+        StreamingOutput output = run("threadDump.sample", 100, sample);
+        StringWriter writer = new StringWriter();
+        long start = System.nanoTime();
+        try {
+            output.writeTo(writer);
+            throw new AssertionError("Output should have timed out");
+        } catch (IOException ex) {
+            assertEquals("Command timed out after 100ms", ex.getMessage());
+            assertTrue(ex.getCause() instanceof ShellException);
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertEquals("sample 1\n", writer.toString());
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    private StreamingOutput run(String command, long timeoutMillis, CommandExecutor commandExecutor)
+            throws Exception {
+        // Commands only run within a session, whose context is bound to the calling thread
+        return new SshSessionContext().wrap(() -> commandRunner.decorate(command, timeoutMillis, commandExecutor)
+                .get(null)).call();
+    }
+
+    private void awaitEnd() {
+        try {
+            end.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -15,9 +15,11 @@
  */
 package sshd.shell.springboot.autoconfiguration;
 
-import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import org.junit.Test;
 
@@ -28,14 +30,77 @@ import org.junit.Test;
 public class SshSessionContextTest {
     
     @Test
-    public void testSshSessionContext() throws IOException {
-        assertFalse(SshSessionContext.containsKey("test"));
-        SshSessionContext.put("test", "test");
-        assertEquals("test", SshSessionContext.get("test"));
-        assertTrue(SshSessionContext.containsKey("test"));
-        assertEquals("test", SshSessionContext.remove("test"));
+    @SuppressWarnings("deprecation")
+    public void testSshSessionContext() {
+        new SshSessionContext().wrap(() -> {
+            assertFalse(SshSessionContext.containsKey("test"));
+            SshSessionContext.put("test", "test");
+            assertEquals("test", SshSessionContext.get("test"));
+            assertTrue(SshSessionContext.containsKey("test"));
+            assertEquals("test", SshSessionContext.remove("test"));
+            assertFalse(SshSessionContext.containsKey("test"));
+            SshSessionContext.put("test", "test");
+            SshSessionContext.put("test", null);
+            assertFalse(SshSessionContext.containsKey("test"));
+            assertTrue(SshSessionContext.isEmpty());
+        }).run();
+        assertTrue(SshSessionContext.isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testTypedKeys() {
+        new SshSessionContext().wrap(() -> {
+            SshSessionContext.put(SshSessionContext.USER, "bob");
+            assertEquals("bob", SshSessionContext.get(SshSessionContext.USER));
+            assertEquals("bob", SshSessionContext.get(Constants.USER));
+            assertEquals("bob", SshSessionContext.remove(SshSessionContext.USER));
+            assertNull(SshSessionContext.get(Constants.USER));
+            SshSessionContext.put(Constants.USER, "carol");
+            assertEquals("carol", SshSessionContext.get(SshSessionContext.USER));
+        }).run();
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testNoContextBoundOutsideSession() {
+        assertNull(SshSessionContext.get(SshSessionContext.USER));
+        assertNull(SshSessionContext.get("test"));
         assertFalse(SshSessionContext.containsKey("test"));
-        SshSessionContext.clear();
+        assertNull(SshSessionContext.remove(SshSessionContext.USER));
+        assertTrue(SshSessionContext.isEmpty());
+        try {
+            SshSessionContext.put(SshSessionContext.USER, "mallory");
+            throw new AssertionError("Put should have failed without context");
+        } catch (IllegalStateException ex) {
+            assertTrue(ex.getMessage().startsWith("No SSH session context is bound to thread"));
+        }
+        try {
+            SshSessionContext.put("test", "test");
+            throw new AssertionError("Put should have failed without context");
+        } catch (IllegalStateException ex) {
+            assertTrue(ex.getMessage().startsWith("No SSH session context is bound to thread"));
+        }
+        assertNull(SshSessionContext.get(SshSessionContext.USER));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateKey() {
+        SshSessionContext.Key.of(Constants.USER);
+    }
+
+    @Test
+    public void testPropagationToOtherThread() throws Exception {
+        SshSessionContext context = new SshSessionContext();
+        context.putValue(SshSessionContext.USER, "alice");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertEquals("alice", executor.submit(context.wrap(() -> SshSessionContext.get(SshSessionContext.USER)))
+                    .get());
+            assertTrue(executor.submit(() -> SshSessionContext.isEmpty()).get());
+        } finally {
+            executor.shutdown();
+        }
         assertTrue(SshSessionContext.isEmpty());
     }
 }
@@ -18,8 +18,15 @@ package sshd.shell.springboot.autoconfiguration;
 import com.jcraft.jsch.ChannelSftp;
 import com.jcraft.jsch.Session;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import org.junit.Test;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -69,6 +76,36 @@ public class SshdSftpEnabledTest extends AbstractSshSupport {
         });
     }
 
+    @Test
+    public void testBackgroundHeapDumpWithSftpEnabled() throws IOException {
+        restoreHeapDumpResource();
+        assertEquals("Heap dump started in background. Check progress with 'heapDump status'\n",
+                sshCallExec("heapDump background true").getOutput());
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> sshCallExec("heapDump status").getOutput().startsWith("Heap dump completed"));
+        assertTrue(sshCallExec("heapDump status").getOutput()
+                .contains("Resource can be downloaded with SFTP/SCP at banner.txt.gz"));
+        assertTrue(new File("target/sftp/admin/banner.txt.gz").exists());
+        restoreHeapDumpResource();
+    }
+
+    @Test
+    public void testJfrWithSftpEnabled() {
+        String id = sshCallExec("jfr start").getOutput().split(" ")[1];
+        String stopped = sshCallExec("jfr stop " + id).getOutput();
+        assertTrue(stopped.startsWith("Resource can be downloaded with SFTP/SCP at recording-" + id + "-"));
+        String fileName = stopped.substring(stopped.lastIndexOf(' ') + 1).trim();
+        assertTrue(new File("target/sftp/admin/" + fileName).exists());
+        assertTrue(sshCallExec("jfr summary " + fileName).getOutput().startsWith("Hot methods ("));
+        assertEquals("Usage: jfr summary <recordingId|fileName>\n",
+                sshCallExec("jfr summary ../" + fileName).getOutput());
+    }
+
+    private void restoreHeapDumpResource() throws IOException {
+        Files.copy(Paths.get("src/test/resources/banner.txt"), Paths.get("target/banner.txt"),
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
     @Test
     public void testLogfileWithSftpEnabled() {
         sshCallShell((is, os) -> {
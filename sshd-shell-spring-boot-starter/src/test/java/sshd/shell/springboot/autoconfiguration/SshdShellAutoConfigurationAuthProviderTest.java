@@ -82,7 +82,7 @@ public class SshdShellAutoConfigurationAuthProviderTest extends AbstractSshSuppo
             String format = "\r" + props.getShell().getText().getUsageInfoFormat();
             write(os, "help");
             StringBuilder sb = new StringBuilder("Supported Commands");
-            for (int i = 0; i < 4; i++) {
+            for (int i = 0; i < 6; i++) {
                 sb.append(format);
             }
             sb.append("\r\nSupported post processors for output")
@@ -96,7 +96,9 @@ public class SshdShellAutoConfigurationAuthProviderTest extends AbstractSshSuppo
                     "dummy", "dummy description",
                     "exception", "throws Exceptions",
                     "exit", "Exit shell",
-                    "help", "Show list of help commands"));
+                    "fg", "Attach to output of background job. Usage: fg <jobId>",
+                    "help", "Show list of help commands",
+                    "jobs", "Background jobs of session, started with '<command> &'"));
         }, "shell");
     }
 }
@@ -52,7 +52,7 @@ public class SshdShellAutoConfigurationDisabledEndpointTest extends AbstractSshS
             String format = "\r" + props.getShell().getText().getUsageInfoFormat();
             write(os, "help");
             StringBuilder sb = new StringBuilder("Supported Commands");
-            for (int i = 0; i < 5; i++) {
+            for (int i = 0; i < 7; i++) {
                 sb.append(format);
             }
             sb.append("\r\nSupported post processors for output")
@@ -66,7 +66,9 @@ public class SshdShellAutoConfigurationDisabledEndpointTest extends AbstractSshS
                     "dummy", "dummy description",
                     "exception", "throws Exceptions",
                     "exit", "Exit shell",
+                    "fg", "Attach to output of background job. Usage: fg <jobId>",
                     "help", "Show list of help commands",
+                    "jobs", "Background jobs of session, started with '<command> &'",
                     "test", "test description"));
         });
     }
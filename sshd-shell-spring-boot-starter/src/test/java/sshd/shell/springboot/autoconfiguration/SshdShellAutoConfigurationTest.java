@@ -21,6 +21,7 @@ package sshd.shell.springboot.autoconfiguration;
 import com.icegreen.greenmail.store.FolderException;
 import com.icegreen.greenmail.util.GreenMail;
 import com.icegreen.greenmail.util.ServerSetup;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Duration;
 import java.util.Locale;
 import javax.mail.MessagingException;
@@ -44,13 +45,16 @@ import org.springframework.util.SocketUtils;
         "sshd.system.command.roles=*",
         "spring.jmx.enabled=true",
         "spring.flyway.baseline-on-migrate=true",
-        "spring.main.allow-circular-references=true"
+        "spring.main.allow-circular-references=true",
+        "management.metrics.export.prometheus.enabled=true"
 })
 @DirtiesContext
 public class SshdShellAutoConfigurationTest extends AbstractSshSupport {
 
     @Autowired
     private JavaMailSender mailSender;
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     @Test
     public void testMappingsCommand() {
@@ -60,6 +64,62 @@ public class SshdShellAutoConfigurationTest extends AbstractSshSupport {
         });
     }
 
+    @Test
+    public void testSessionExecutorMetrics() {
+        sshCallShell((is, os) -> {
+            write(os, "exit");
+            verifyResponseContains(is, "Exiting shell");
+        });
+        assertTrue(meterRegistry.get("sshd.shell.sessions.started").functionCounter().count() > 0);
+        assertEquals(0, meterRegistry.get("sshd.shell.sessions.rejected").tag("reason", "executor").functionCounter()
+                .count(), 0);
+    }
+
+    @Test
+    public void testExecMode() {
+        ExecResult result = sshCallExec("test run bob; test execute");
+        assertEquals(0, result.getExitStatus());
+        assertEquals("test run bob\ntest execute successful\n", result.getOutput());
+    }
+
+    @Test
+    public void testExecModeWithQuotedSeparator() {
+        ExecResult result = sshCallExec("test run 'bob;alice'; test run {\"name\":\"x;y\"}\ntest run a\\;b");
+        assertEquals(0, result.getExitStatus());
+        assertEquals("test run bob;alice\ntest run {\"name\":\"x;y\"}\ntest run a;b\n", result.getOutput());
+    }
+
+    @Test
+    public void testExecModeWithFailedCommand() {
+        ExecResult result = sshCallExec("test nonexistent\ntest run bob");
+        assertEquals(1, result.getExitStatus());
+        assertTrue(result.getOutput().contains("Unknown subcommand 'nonexistent'"));
+        assertTrue(result.getOutput().contains("test run bob"));
+    }
+
+    @Test
+    public void testExecModeWithCommandError() {
+        ExecResult result = sshCallExec("exception ise; test execute");
+        assertEquals(1, result.getExitStatus());
+        assertTrue(result.getOutput().contains("Error performing method invocation"));
+        assertTrue(result.getOutput().contains("test execute successful"));
+    }
+
+    @Test
+    public void testExecModeWithErrorWhileStreaming() {
+        ExecResult result = sshCallExec("exception streamIae");
+        assertEquals(1, result.getExitStatus());
+        assertTrue(result.getOutput().startsWith("streamed output\n"));
+        assertTrue(result.getOutput().contains("streamed illegalargumentexception"));
+    }
+
+    @Test
+    public void testExecModeWithInteractiveCommand() {
+        ExecResult result = sshCallExec("test interactive");
+        assertEquals(1, result.getExitStatus());
+        assertEquals("Interactive input is not supported in exec mode\n", result.getOutput());
+    }
+
     @Test
     public void testExitCommand() {
         sshCallShell((is, os) -> {
@@ -92,6 +152,14 @@ public class SshdShellAutoConfigurationTest extends AbstractSshSupport {
         });
     }
 
+    @Test
+    public void testIAEWhileStreaming() {
+        sshCallShell((is, os) -> {
+            write(os, "exception streamIae");
+            verifyResponseContains(is, "streamed illegalargumentexception");
+        });
+    }
+
     @Test
     public void testUnsupportedCommand() {
         sshCallShell((is, os) -> {
@@ -136,6 +204,7 @@ public class SshdShellAutoConfigurationTest extends AbstractSshSupport {
                 "environment", "Environment details",
                 "exception", "throws Exceptions",
                 "exit", "Exit shell",
+                "fg", "Attach to output of background job. Usage: fg <jobId>",
                 "flyway", "Flyway database migration details (if applicable)",
                 "health", "System health info",
                 "heapDump", "Heap dump command",
@@ -143,6 +212,8 @@ public class SshdShellAutoConfigurationTest extends AbstractSshSupport {
                 "httpTrace", "Http trace information",
                 "info", "System status",
                 "integrationGraph", "Information about Spring Integration graph",
+                "jfr", "Java Flight Recorder recordings",
+                "jobs", "Background jobs of session, started with '<command> &'",
                 "liquibase", "Liquibase database migration details (if applicable)",
                 "logfile", "Application log file",
                 "loggers", "Logging configuration",
@@ -165,7 +236,19 @@ public class SshdShellAutoConfigurationTest extends AbstractSshSupport {
                     .append(String.format(Locale.ENGLISH, format, "", "Example usage: help | h exit"))
                     .append(String.format(Locale.ENGLISH, format, "m <emailId>",
                             "Send response output of command execution to <emailId>"))
-                    .append(String.format(Locale.ENGLISH, format, "", "Example usage: help | m bob@hope.com"));
+                    .append(String.format(Locale.ENGLISH, format, "", "Example usage: help | m bob@hope.com"))
+                    .append(String.format(Locale.ENGLISH, format, "more", "Pages response output of command execution"))
+                    .append(String.format(Locale.ENGLISH, format, "", "Example usage: beans | more"))
+                    .append("\r\nSupported pipe operators for output")
+                    .append(String.format(Locale.ENGLISH, format, "grep [-v] [-i] <regex>",
+                            "Lines matching <regex>, -v not matching, -i ignoring case"))
+                    .append(String.format(Locale.ENGLISH, format, "", "Example usage: beans | grep Controller | head 5"))
+                    .append(String.format(Locale.ENGLISH, format, "head [<n>]", "First <n> lines, 10 by default"))
+                    .append(String.format(Locale.ENGLISH, format, "tail [<n>]", "Last <n> lines, 10 by default"))
+                    .append(String.format(Locale.ENGLISH, format, "sort [-n] [-r]",
+                            "Sorted lines, -n by leading number, -r in reverse order"))
+                    .append(String.format(Locale.ENGLISH, format, "wc [-l]",
+                            "Number of lines, words and characters, -l for lines only"));
             verifyResponseContains(is, String.format(Locale.ENGLISH, sb.toString(), supportedCommands));
         });
     }
@@ -232,6 +315,24 @@ public class SshdShellAutoConfigurationTest extends AbstractSshSupport {
         });
     }
 
+    @Test
+    public void testPipeOperators() {
+        assertEquals(String.format(Locale.ENGLISH, "%-35s%s\n%-35s%s\n", "interactive", "test interactive", "execute",
+                "test execute"), sshCallExec("test | grep -v run | sort -r | head 2").getOutput());
+        assertEquals("4\n", sshCallExec("test | wc -l").getOutput());
+        assertEquals("2\n", sshCallExec("test | grep 'run|execute' | wc -l").getOutput());
+        assertEquals("2\n", sshCallExec("test | grep run\\|execute | wc -l").getOutput());
+        assertEquals(sshCallExec("test").getOutput(), sshCallExec("test | more").getOutput());
+    }
+
+    @Test
+    public void testPipeOperatorsWithHighlight() {
+        sshCallShell((is, os) -> {
+            write(os, "test | grep run | h run");
+            verifyResponseContains(is, "test \u001B[43mrun\u001B[0m");
+        });
+    }
+
     @Test
     public void testInvalidCommand() {
         sshCallShell((is, os) -> {
@@ -456,6 +557,49 @@ public class SshdShellAutoConfigurationTest extends AbstractSshSupport {
         });
     }
 
+    @Test
+    public void testMetricsQuery() {
+        ExecResult result = sshCallExec("metrics query {\"names\":[\"jvm.memory.*\"],\"tags\":[\"area:heap\"],"
+                + "\"format\":\"LINE\"}");
+        assertEquals(0, result.getExitStatus());
+        assertTrue(result.getOutput().startsWith("jvm.memory.committed,area=heap,id="));
+    }
+
+    @Test
+    public void testMetricsScrape() {
+        ExecResult result = sshCallExec("metrics scrape");
+        assertEquals(0, result.getExitStatus());
+        assertTrue(result.getOutput().contains("# TYPE jvm_memory_used_bytes gauge\n"));
+        assertTrue(result.getOutput().endsWith("\n# EOF\n"));
+    }
+
+    @Test
+    public void testMetricsQueryWithoutNames() {
+        sshCallShell((is, os) -> {
+            write(os, "metrics query {}");
+            verifyResponseContains(is, "Usage: metrics query {\"names\":[");
+        });
+    }
+
+    @Test
+    public void testMetricsWatch() {
+        sshCallShell((is, os) -> {
+            write(os, "metrics watch {\"names\":[\"jvm.memory.used\",\"xxx\"],\"count\":1}");
+            verifyResponseContains(is, "jvm.memory.used  VALUE");
+        });
+    }
+
+    @Test
+    public void testMetricsWatchInExecMode() {
+        ExecResult result = sshCallExec("metrics watch {\"names\":[\"xxx\"],\"intervalSeconds\":1,\"count\":2}");
+        assertEquals(0, result.getExitStatus());
+        String[] lines = result.getOutput().split("\n");
+        assertEquals(6, lines.length);
+        assertTrue(lines[0].startsWith("Every 1s: "));
+        assertEquals("xxx" + String.format("%14s", "") + "not found", lines[2]);
+        assertTrue(lines[3].startsWith("Every 1s: "));
+    }
+
     @Test
     public void testMetricsInvalidJson() {
         sshCallShell((is, os) -> {
@@ -481,6 +625,56 @@ public class SshdShellAutoConfigurationTest extends AbstractSshSupport {
         });
     }
 
+    @Test
+    public void testThreadDumpSample() {
+        ExecResult result = sshCallExec("threadDump sample 3 10");
+        assertEquals(0, result.getExitStatus());
+        assertTrue(result.getOutput().startsWith("# 3 samples of runnable threads in "));
+        assertTrue(result.getOutput().contains("\n# CPU ms per thread\n"));
+    }
+
+    @Test
+    public void testThreadDumpSampleInvalid() {
+        sshCallShell((is, os) -> {
+            write(os, "threadDump sample 0 x");
+            verifyResponseContains(is, "Usage: threadDump sample <count> <intervalMs>");
+        });
+    }
+
+    @Test
+    public void testThreadDumpText() {
+        ExecResult result = sshCallExec("threadDump text --top-cpu 1");
+        assertEquals(0, result.getExitStatus());
+        assertTrue(result.getOutput().startsWith("Thread dump of 1 threads\n\n\""));
+    }
+
+    @Test
+    public void testThreadDumpTextInvalidState() {
+        sshCallShell((is, os) -> {
+            write(os, "threadDump text --state SLEEPING");
+            verifyResponseContains(is, "Usage: threadDump text [--state <NEW|RUNNABLE");
+        });
+    }
+
+    @Test
+    public void testJfrStartListAndStop() {
+        ExecResult result = sshCallExec("jfr start {\"name\":\"shell-test\",\"maxSizeMB\":10}");
+        assertEquals(0, result.getExitStatus());
+        assertTrue(result.getOutput().matches("Recording \\d+ started\n"));
+        String id = result.getOutput().split(" ")[1];
+        assertTrue(sshCallExec("jfr list").getOutput().contains("shell-test"));
+        assertTrue(sshCallExec("jfr stop " + id).getOutput().startsWith("Resource can be found at "));
+        assertEquals("Usage: jfr stop <recordingId>\n", sshCallExec("jfr stop " + id).getOutput());
+    }
+
+    @Test
+    public void testJfrStartWithUnknownSettings() {
+        sshCallShell((is, os) -> {
+            write(os, "jfr start {\"settings\":\"unknown\"}");
+            verifyResponseContains(is, "Usage: jfr start {");
+        });
+    }
+
     @Test
     public void testHttpTraceCommand() {
         sshCallShell((is, os) -> {
@@ -608,4 +802,110 @@ public class SshdShellAutoConfigurationTest extends AbstractSshSupport {
             verifyResponseContains(is, "Resource can be found at ");
         });
     }
+
+    @Test
+    public void testLogfileTail() {
+        sshCallShell((is, os) -> {
+            write(os, "logfile tail 5");
+            verifyResponseContains(is, "INFO");
+        });
+    }
+
+    @Test
+    public void testLogfileTailWithoutLines() {
+        sshCallShell((is, os) -> {
+            write(os, "logfile tail");
+            verifyResponseContains(is, "Usage: logfile tail <numberOfLines>");
+        });
+    }
+
+    @Test
+    public void testLogfileRange() {
+        sshCallShell((is, os) -> {
+            write(os, "logfile range 0 1000");
+            verifyResponseContains(is, "INFO");
+        });
+    }
+
+    @Test
+    public void testLogfileRangeInvalid() {
+        sshCallShell((is, os) -> {
+            write(os, "logfile range 10 x");
+            verifyResponseContains(is, "Usage: logfile range <fromByte> <toByte>");
+        });
+    }
+
+    @Test
+    public void testCommandTimeout() {
+        assertEquals("dummy slept\n", sshCallExec("dummy sleep 10").getOutput());
+        ExecResult result = sshCallExec("dummy sleep 60000");
+        assertEquals(1, result.getExitStatus());
+        assertEquals("Command timed out after 2000ms\n", result.getOutput());
+    }
+
+    @Test
+    public void testCommandCancelledWithCtrlC() {
+        sshCallShell((is, os) -> {
+            write(os, "dummy sleep 60000");
+            pause(Duration.ofMillis(500));
+            os.write(3);
+            os.flush();
+            verifyResponseContains(is, "Command cancelled");
+            write(os, "dummy run");
+            verifyResponseContains(is, "dummy run successful");
+        });
+    }
+
+    @Test
+    public void testBackgroundJob() {
+        sshCallShell((is, os) -> {
+            write(os, "dummy sleep 300 &");
+            verifyResponseContains(is, "[1] dummy sleep 300");
+            write(os, "jobs");
+            verifyResponseContains(is, "[1] RUNNING");
+            write(os, "fg 1");
+            verifyResponseContains(is, "dummy slept");
+            verifyResponseContains(is, "[1] DONE  dummy sleep 300");
+            write(os, "jobs");
+            verifyResponseContains(is, "No background jobs");
+            write(os, "fg 1");
+            verifyResponseContains(is, "No such job 1");
+        });
+    }
+
+    @Test
+    public void testBackgroundJobInExecMode() {
+        ExecResult result = sshCallExec("dummy run &");
+        assertEquals(1, result.getExitStatus());
+        assertEquals("Background jobs are not supported in exec mode\n", result.getOutput());
+    }
+
+    @Test
+    public void testLogfileFollowStoppedWithCtrlC() {
+        sshCallShell((is, os) -> {
+            write(os, "logfile follow 1");
+            pause(Duration.ofSeconds(1));
+            os.write(3);
+            os.flush();
+            pause(Duration.ofSeconds(1));
+            write(os, "logfile tail");
+            verifyResponseContains(is, "Usage: logfile tail <numberOfLines>");
+        });
+    }
+
+    @Test
+    public void testLogfileGrep() {
+        sshCallShell((is, os) -> {
+            write(os, "logfile grep -C 1 --from 2000-01-01T00:00 Executed command: logfile \\w+");
+            verifyResponseContains(is, "[admin] Executed command: logfile grep");
+        });
+    }
+
+    @Test
+    public void testLogfileGrepWithoutRegex() {
+        sshCallShell((is, os) -> {
+            write(os, "logfile grep --from yesterday x");
+            verifyResponseContains(is, "Usage: logfile grep [-C <contextLines>]");
+        });
+    }
 }
@@ -22,11 +22,17 @@ import com.jcraft.jsch.ChannelShell;
 import com.jcraft.jsch.JSch;
 import com.jcraft.jsch.JSchException;
 import com.jcraft.jsch.Session;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.io.IOException;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Properties;
+import org.apache.sshd.common.io.nio2.Nio2ServiceFactoryFactory;
+import org.apache.sshd.core.CoreModuleProperties;
+import org.apache.sshd.server.SshServer;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -40,6 +46,11 @@ import org.springframework.test.annotation.DirtiesContext;
         "sshd.shell.publicKeyFile=src/test/resources/id_rsa.pub",
         "banner.image.location=banner.png",
         "logging.level.sshd.shell=DEBUG",
+        "sshd.shell.io.backend=NIO2",
+        "sshd.shell.io.workers=2",
+        "sshd.shell.io.tcpNoDelay=true",
+        "sshd.shell.cache.enabled=true",
+        "sshd.shell.cache.ttl[test.execute]=1m",
         "spring.flyway.baseline-on-migrate=true",
         "spring.main.allow-circular-references=true"
 })
@@ -48,6 +59,27 @@ public class SshdShellAutoConfigurationWithPublicKeyAndBannerImageTest extends A
 
     @Autowired
     private SshdShellProperties properties;
+    @Autowired
+    private SshServer sshServer;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void testIoConfiguration() {
+        assertTrue(sshServer.getIoServiceFactoryFactory() instanceof Nio2ServiceFactoryFactory);
+        assertEquals(Integer.valueOf(2), CoreModuleProperties.NIO_WORKERS.getRequired(sshServer));
+        assertTrue(CoreModuleProperties.TCP_NODELAY.getRequired(sshServer));
+    }
+
+    @Test
+    public void testCommandResultCache() {
+        assertEquals("test execute successful\ntest execute successful\n",
+                sshCallExec("test execute; test execute").getOutput());
+        assertEquals(1, meterRegistry.get("sshd.shell.command.cache.hits").tag("command", "test.execute")
+                .functionCounter().count(), 0);
+        assertEquals(1, meterRegistry.get("sshd.shell.command.cache.misses").tag("command", "test.execute")
+                .functionCounter().count(), 0);
+    }
 
     @Test
     public void testTestCommand() throws JSchException, IOException {
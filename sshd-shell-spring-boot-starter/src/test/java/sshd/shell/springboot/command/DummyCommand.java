@@ -18,6 +18,7 @@
  */
 package sshd.shell.springboot.command;
 
+import java.util.concurrent.TimeUnit;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import sshd.shell.springboot.autoconfiguration.SshdShellCommand;
@@ -35,4 +36,10 @@ public class DummyCommand {
     public String run(String arg) {
         return "dummy run successful";
     }
+
+    @SshdShellCommand(value = "sleep", description = "dummy sleep", timeoutMillis = 2000)
+    public String sleep(String arg) throws InterruptedException {
+        TimeUnit.MILLISECONDS.sleep(Long.parseLong(arg));
+        return "dummy slept";
+    }
 }
@@ -21,6 +21,7 @@ package sshd.shell.springboot.command;
 import org.springframework.stereotype.Component;
 import sshd.shell.springboot.ShellException;
 import sshd.shell.springboot.autoconfiguration.SshdShellCommand;
+import sshd.shell.springboot.autoconfiguration.StreamingOutput;
 
 /**
  *
@@ -39,4 +40,17 @@ public class ExceptionCommand {
     public String se(String arg) throws ShellException {
         throw new ShellException("shellexception");
     }
+
+    @SshdShellCommand(value = "ise", description = "throws ISE")
+    public String ise(String arg) {
+        throw new IllegalStateException("illegalstateexception");
+    }
+
+    @SshdShellCommand(value = "streamIae", description = "throws IAE while streaming")
+    public StreamingOutput streamIae(String arg) {
+        return writer -> {
+            writer.write("streamed output\n");
+            throw new IllegalArgumentException("streamed illegalargumentexception");
+        };
+    }
 }
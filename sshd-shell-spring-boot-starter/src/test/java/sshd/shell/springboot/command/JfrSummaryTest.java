@@ -0,0 +1,60 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.command;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ *
+ * @author anand
+ */
+public class JfrSummaryTest {
+
+    @Test
+    public void testSummary() throws Exception {
+        Path file = Paths.get("target", "summary-test.jfr");
+        try (Recording recording = new Recording(Configuration.getConfiguration("profile"))) {
+            recording.start();
+            allocate(TimeUnit.MILLISECONDS.toNanos(500));
+            System.gc();
+            recording.stop();
+            recording.dump(file);
+        }
+        String summary = JfrSummary.summarize(file);
+        assertTrue(summary.startsWith("Hot methods ("));
+        assertTrue(summary.contains("\nAllocation sites (MB)\n"));
+        assertTrue(summary.matches("(?s).*\nGC pauses: [1-9]\\d* collections, total \\d+ ms, longest \\d+ ms"));
+    }
+
+    private static void allocate(long nanos) {
+        long end = System.nanoTime() + nanos;
+        List<byte[]> garbage = new ArrayList<>();
+        while (System.nanoTime() < end) {
+            garbage.add(new byte[1024]);
+            if (garbage.size() == 1000) {
+                garbage.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.command;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Arrays;
+import java.util.Collections;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author anand
+ */
+public class MetricsQueryTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Before
+    public void setUp() {
+        registry.counter("http.requests", "uri", "/a", "status", "200").increment(3);
+        registry.counter("http.requests", "uri", "/b", "status", "500").increment();
+        registry.gauge("jvm.memory.used", Tags.of("area", "heap"), 1.5);
+        registry.gauge("jvm.threads.live", 7);
+    }
+
+    @Test
+    public void testGlobAndTagPredicates() {
+        MetricsQuery query = new MetricsQuery(Arrays.asList("http.*", "jvm.memory.?sed"),
+                Arrays.asList("status!:5*"));
+        assertEquals("NAME             TAGS               STATISTIC  VALUE\n"
+                + "http.requests    status=200,uri=/a  COUNT      3\n"
+                + "jvm.memory.used  area=heap          VALUE      1.5",
+                MetricsQuery.render(query.execute(registry), MetricsQuery.Format.TABLE));
+    }
+
+    @Test
+    public void testRegexInLineFormat() {
+        MetricsQuery query = new MetricsQuery(Arrays.asList("/jvm\\..+/"), Collections.emptyList());
+        String[] lines = MetricsQuery.render(query.execute(registry), MetricsQuery.Format.LINE).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("jvm.memory.used,area=heap value=1.5 "));
+        assertTrue(lines[1].startsWith("jvm.threads.live value=7 "));
+    }
+}
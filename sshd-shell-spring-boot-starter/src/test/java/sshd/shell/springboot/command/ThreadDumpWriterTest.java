@@ -0,0 +1,118 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.command;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ *
+ * @author anand
+ */
+public class ThreadDumpWriterTest {
+
+    private final Object lock = new Object();
+
+    @Test
+    public void testBlockedThreadFilteredByStateAndName() throws IOException, InterruptedException {
+        Thread blocked = new Thread(() -> {
+            synchronized (lock) {
+                lock.notifyAll();
+            }
+        }, "blocked-test-thread");
+        String output;
+        synchronized (lock) {
+            blocked.start();
+            while (blocked.getState() != Thread.State.BLOCKED) {
+                TimeUnit.MILLISECONDS.sleep(5);
+            }
+            output = write(ThreadDumpWriter.builder().state(Thread.State.BLOCKED)
+                    .namePattern(Pattern.compile("^blocked-test")));
+        }
+        blocked.join();
+        assertTrue(output.startsWith("Thread dump of 1 threads\n\n\"blocked-test-thread\" #"
+                + blocked.getId() + " BLOCKED"));
+        assertTrue(output.contains("\n\tat sshd.shell.springboot.command.ThreadDumpWriterTest.lambda$"));
+        assertTrue(output.contains("\n\t- blocked on java.lang.Object@"));
+        assertTrue(output.contains(" owned by \"" + Thread.currentThread().getName() + "\" #"
+                + Thread.currentThread().getId() + "\n"));
+    }
+
+    @Test
+    public void testWithoutDeadlockedThreads() throws IOException {
+        assertEquals("Thread dump of 0 threads\n\n", write(ThreadDumpWriter.builder().deadlocked(true)));
+    }
+
+    @Test
+    public void testTopCpu() throws IOException {
+        String output = write(ThreadDumpWriter.builder().topCpu(2));
+        assertTrue(output.startsWith("Thread dump of 2 threads\n\n\""));
+        assertTrue(output.contains(" cpu="));
+    }
+
+    @Test
+    public void testTopCpuSortsSnapshotOfCpuTimes() throws IOException {
+        AtomicLong reads = new AtomicLong();
+        List<Long> fetchedIds = new ArrayList<>();
+        ThreadMXBean threadMXBean = (ThreadMXBean) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ThreadMXBean.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getAllThreadIds":
+                            return LongStream.rangeClosed(1, 100).toArray();
+                        case "isThreadCpuTimeSupported":
+                        case "isThreadCpuTimeEnabled":
+                            return true;
+                        case "isObjectMonitorUsageSupported":
+                        case "isSynchronizerUsageSupported":
+                            return false;
+                        case "getThreadCpuTime":
+                            // Time grows with every read, as for busy threads, and threads ending in 0 have ended
+                            long id = (Long) args[0];
+                            return id % 10 == 0 ? -1L : 100 - id + 1000 * reads.incrementAndGet();
+                        case "getThreadInfo":
+                            Arrays.stream((long[]) args[0]).forEach(fetchedIds::add);
+                            return new ThreadInfo[((long[]) args[0]).length];
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        StringWriter writer = new StringWriter();
+        ThreadDumpWriter.builder().threadMXBean(threadMXBean).topCpu(3).build().write(writer);
+        assertEquals("Thread dump of 3 threads\n\n", writer.toString());
+        assertEquals(Arrays.asList(99L, 98L, 97L), fetchedIds);
+        assertEquals(90, reads.get());
+    }
+
+    private String write(ThreadDumpWriter.ThreadDumpWriterBuilder builder) throws IOException {
+        StringWriter writer = new StringWriter();
+        builder.threadMXBean(ManagementFactory.getThreadMXBean()).build().write(writer);
+        return writer.toString();
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.command;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Arrays;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ *
+ * @author anand
+ */
+public class ThreadSamplerTest {
+
+    private volatile boolean spinning = true;
+
+    @Test
+    public void testCollapsedStacksOfBusyThread() throws IOException, InterruptedException {
+        Thread busy = new Thread(this::spin, "busy-thread");
+        busy.start();
+        StringWriter writer = new StringWriter();
+        try {
+            new ThreadSampler(ManagementFactory.getThreadMXBean()).sample(20, Duration.ofMillis(5), writer);
+        } finally {
+            spinning = false;
+            busy.join();
+        }
+        String[] lines = writer.toString().split("\n");
+        assertTrue(lines[0].startsWith("# 20 samples of runnable threads in "));
+        assertTrue(Arrays.stream(lines).anyMatch(line -> line.matches("java\\.lang\\.Thread\\.run;.*"
+                + "ThreadSamplerTest\\.spin \\d+")));
+        assertTrue(Arrays.asList(lines).contains("# CPU ms per thread"));
+    }
+
+    private void spin() {
+        long value = 0;
+        while (spinning) {
+            value += System.nanoTime() % 7;
+        }
+        assertTrue(value >= 0);
+    }
+}
@@ -15,8 +15,20 @@
  */
 package sshd.shell.springboot.console;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import org.jline.terminal.Size;
+import org.jline.terminal.Terminal;
+import org.jline.terminal.impl.DumbTerminal;
+import org.jline.utils.AttributedStyle;
 import org.junit.Test;
+import sshd.shell.springboot.autoconfiguration.SshSessionContext;
 import sshd.shell.springboot.util.JsonUtils;
 
 /**
@@ -29,7 +41,34 @@ public class ConsoleIOTest {
     public void testConsoleIOAsJsonException() {
         assertTrue(JsonUtils.asJson(new X("x")).startsWith("Error processing json output"));
     }
+
+    @Test
+    public void testConsoleIOAsStreamingJsonException() {
+        assertTrue(JsonUtils.asStreamingJson(new X("x")).asString().startsWith("Error processing json output"));
+    }
     
+    @Test
+    public void testNothingWrittenAfterPagingQuit() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Terminal terminal = new DumbTerminal("test", "dumb", new ByteArrayInputStream("q".getBytes(
+                StandardCharsets.UTF_8)), out, StandardCharsets.UTF_8);
+        terminal.setSize(new Size(80, 5));
+        SshSessionContext context = new SshSessionContext();
+        context.putValue(ConsoleIO.TERMINAL, terminal);
+        context.putValue(ConsoleIO.TEXT_STYLE, AttributedStyle.DEFAULT);
+        context.wrap(() -> ConsoleIO.pageOutput(writer -> {
+            for (int line = 1; line <= 1000; line++) {
+                writer.write("line " + line + "\n");
+            }
+        })).run();
+        String output = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        int prompt = output.indexOf("--More--");
+        assertTrue(prompt > output.indexOf("line 4"));
+        assertFalse(output.substring(prompt).contains("line"));
+        assertEquals(output.indexOf("line 1"), output.lastIndexOf("line 1"));
+        assertNull(context.getValue(ConsoleIO.OUTPUT_FAILED));
+    }
+
     @lombok.AllArgsConstructor
     private static class X {
         final String x;
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.console;
+
+import org.jline.utils.AttributedString;
+import org.jline.utils.AttributedStringBuilder;
+import org.jline.utils.AttributedStyle;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ *
+ * @author anand
+ */
+public class HighlighterTest {
+
+    private static final AttributedStyle HIGHLIGHT = AttributedStyle.DEFAULT.foreground(AttributedStyle.YELLOW);
+
+    @Test
+    public void testLiteralIsNotRegex() {
+        assertEquals("help[.] [..]", highlight("help. ..", "."));
+        assertEquals("a[|]b", highlight("a|b", "|"));
+    }
+
+    @Test
+    public void testRegexBetweenSlashes() {
+        assertEquals("a[bbb]c[b]", highlight("abbbcb", "/b+/"));
+        assertEquals("[/]", highlight("/", "/"));
+    }
+
+    @Test
+    public void testMatchAcrossChunks() {
+        assertEquals("xx [exit] yy\n[exit]", highlightChunks("exit", "xx ex", "it yy\nexi", "t"));
+        assertEquals("[ab]\n[abbb]\nc", highlightChunks("/ab+/", "ab\na", "bb", "b\nc"));
+    }
+
+    @Test
+    public void testMultiMegabyteStreamedOutput() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; sb.length() < 8 * 1024 * 1024; i++) {
+            sb.append("line ").append(i).append(" user exit code ").append(i % 7).append('\n');
+        }
+        String output = sb.toString();
+        String[] chunks = new String[output.length() / 8192 + 1];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = output.substring(i * 8192, Math.min(output.length(), (i + 1) * 8192));
+        }
+        String expected = output.replace("exit", "[exit]");
+        assertEquals(expected, highlight(output, "exit"));
+        assertEquals(expected, highlightChunks("exit", chunks));
+        assertEquals(expected, highlightChunks("/ex.t/", chunks));
+    }
+
+    private static String highlight(String output, String textToHighlight) {
+        AttributedStringBuilder builder = new AttributedStringBuilder();
+        new Highlighter(textToHighlight, AttributedStyle.DEFAULT, HIGHLIGHT)
+                .highlight(output, 0, output.length(), true, builder);
+        return marked(builder.toAttributedString());
+    }
+
+    private static String highlightChunks(String textToHighlight, String... chunks) {
+        Highlighter highlighter = new Highlighter(textToHighlight, AttributedStyle.DEFAULT, HIGHLIGHT);
+        AttributedStringBuilder builder = new AttributedStringBuilder();
+        StringBuilder pending = new StringBuilder();
+        for (int i = 0; i < chunks.length; i++) {
+            pending.append(chunks[i]);
+            pending.delete(0, highlighter.highlight(pending, 0, pending.length(), i == chunks.length - 1, builder));
+        }
+        assertEquals(0, pending.length());
+        return marked(builder.toAttributedString());
+    }
+
+    private static String marked(AttributedString highlighted) {
+        StringBuilder sb = new StringBuilder();
+        boolean inMatch = false;
+        for (int i = 0; i < highlighted.length(); i++) {
+            boolean match = highlighted.styleAt(i).getStyle() == HIGHLIGHT.getStyle();
+            if (match != inMatch) {
+                sb.append(match ? '[' : ']');
+                inMatch = match;
+            }
+            sb.append(highlighted.charAt(i));
+        }
+        return inMatch ? sb.append(']').toString() : sb.toString();
+    }
+}
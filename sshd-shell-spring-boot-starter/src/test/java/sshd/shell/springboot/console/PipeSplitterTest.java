@@ -0,0 +1,64 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.console;
+
+import java.util.Arrays;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ *
+ * @author anand
+ */
+public class PipeSplitterTest {
+
+    @Test
+    public void testSplitAtPipes() {
+        assertEquals(Arrays.asList("help ", " grep x ", " head 5"), PipeSplitter.split("help | grep x | head 5"));
+        assertEquals(Arrays.asList("help", ""), PipeSplitter.split("help|"));
+        assertEquals(Arrays.asList("help"), PipeSplitter.split("help"));
+    }
+
+    @Test
+    public void testQuotedPipesAreNotSplit() {
+        assertEquals(Arrays.asList("logfile grep a|b ", " h /x|y/"),
+                PipeSplitter.split("logfile grep 'a|b' | h '/x|y/'"));
+        assertEquals(Arrays.asList("logfile grep a|b ", " grep -v c|d"),
+                PipeSplitter.split("logfile grep a\\|b | grep -v c\\|d"));
+        assertEquals(Arrays.asList("test run {\"name\":\"a|\\\"b\"} ", " head"),
+                PipeSplitter.split("test run {\"name\":\"a|\\\"b\"} | head"));
+        assertEquals(Arrays.asList("test run {\"name\":\"it's\"}"), PipeSplitter.split("test run {\"name\":\"it's\"}"));
+        assertEquals(Arrays.asList("grep it's \\d+"), PipeSplitter.split("grep it\\'s \\d+"));
+        assertEquals(Arrays.asList("help ", " h a | b"), PipeSplitter.split("help | h 'a | b"));
+    }
+
+    @Test
+    public void testSplitCommands() {
+        assertEquals(Arrays.asList("test run bob", " test execute", "", "help"),
+                PipeSplitter.splitCommands("test run bob; test execute\r\nhelp"));
+        assertEquals(Arrays.asList("logfile grep 'a;b' | h a\\;b", " test run {\"name\":\"x;y\"}"),
+                PipeSplitter.splitCommands("logfile grep 'a;b' | h a\\;b; test run {\"name\":\"x;y\"}"));
+        assertEquals(Arrays.asList("logfile grep a;b ", " h a;b"), PipeSplitter.split("logfile grep 'a;b' | h a\\;b"));
+    }
+
+    @Test
+    public void testLastPipeIndex() {
+        assertEquals(11, PipeSplitter.lastPipeIndex("help | x y | h z"));
+        assertEquals(5, PipeSplitter.lastPipeIndex("help | h 'a|b'"));
+        assertEquals(5, PipeSplitter.lastPipeIndex("help | h a\\|b"));
+        assertEquals(-1, PipeSplitter.lastPipeIndex("logfile grep 'a|b'"));
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.console;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import sshd.shell.springboot.ShellException;
+import sshd.shell.springboot.autoconfiguration.StreamingOutput;
+
+/**
+ *
+ * @author anand
+ */
+public class PipelineTest {
+
+    private final Pipeline pipeline = new Pipeline(Arrays.<PipeOperator>asList(new GrepPipeOperator(),
+            new HeadPipeOperator(), new TailPipeOperator(), new SortPipeOperator(), new WcPipeOperator()));
+
+    @Test
+    public void testHeadStopsCommand() throws ShellException {
+        AtomicLong written = new AtomicLong();
+        StreamingOutput unbounded = writer -> {
+            while (written.incrementAndGet() < 10_000_000) {
+                writer.write("line " + written.get() + "\n");
+            }
+        };
+        assertEquals("line 10\nline 20", pipe(unbounded, " grep 0$", "head 2"));
+        assertEquals(20, written.get());
+    }
+
+    @Test
+    public void testOperators() throws ShellException {
+        StreamingOutput output = StreamingOutput.of("b 10\r\na 9\nC 100\nb 2");
+        assertEquals("a 9\nb 10\nb 2", pipe(output, "grep -i [ab]", "sort"));
+        assertEquals("-1 c\n9 a\n10 b", pipe(StreamingOutput.of("10 b\n9 a\n-1 c"), "sort -n"));
+        assertEquals("C 100\nb 2", pipe(output, "tail 2"));
+        assertEquals("C 100", pipe(output, "grep -v -i [ab]"));
+        assertEquals("4 8 19", pipe(output, "wc"));
+        assertEquals("0", pipe(output, "head 0", "wc -l"));
+        assertEquals("b 10\na 9", pipe(output, "sort -r", "head 3", "tail 2"));
+    }
+
+    @Test(expected = ShellException.class)
+    public void testUnknownOperator() throws ShellException {
+        pipeline.compile(Arrays.asList(" head", " x "));
+    }
+
+    @Test(expected = ShellException.class)
+    public void testInvalidArgument() throws ShellException {
+        pipeline.compile(Arrays.asList(" head -1"));
+    }
+
+    private String pipe(StreamingOutput output, String... operatorInputs) throws ShellException {
+        return pipeline.compile(Arrays.asList(operatorInputs)).apply(output).asString();
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.console;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ *
+ * @author anand
+ */
+public class SpoolTest {
+
+    @Test
+    public void testOutputInMemoryBelowThreshold() throws IOException {
+        Spool spool = new Spool(16);
+        spool.write("0123456789".getBytes(StandardCharsets.UTF_8));
+        spool.close();
+        assertFalse(spool.isSpooledToFile());
+        assertEquals("0123456789", read(spool.newInputStream()));
+    }
+
+    @Test
+    public void testReaderFollowsOutputSpooledToFile() throws IOException, InterruptedException, ExecutionException {
+        Spool spool = new Spool(16);
+        InputStream is = spool.newInputStream();
+        CompletableFuture<String> output = CompletableFuture.supplyAsync(() -> {
+            try {
+                return read(is);
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            String line = "line " + i + "\n";
+            spool.write(line.getBytes(StandardCharsets.UTF_8));
+            expected.append(line);
+        }
+        assertTrue(spool.isSpooledToFile());
+        spool.close();
+        assertEquals(expected.toString(), output.get());
+        assertEquals(expected.length(), spool.size());
+        assertEquals(expected.toString(), read(spool.newInputStream()));
+        spool.delete();
+    }
+
+    @Test(expected = IOException.class)
+    public void testWriteAfterClose() throws IOException {
+        Spool spool = new Spool(16);
+        spool.close();
+        spool.write(1);
+    }
+
+    private static String read(InputStream is) throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        byte[] buffer = new byte[7];
+        for (int read; (read = is.read(buffer)) >= 0;) {
+            os.write(buffer, 0, read);
+        }
+        is.close();
+        return new String(os.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
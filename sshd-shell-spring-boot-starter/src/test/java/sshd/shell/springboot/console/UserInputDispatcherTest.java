@@ -0,0 +1,83 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.console;
+
+import java.util.Arrays;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import org.junit.Test;
+import sshd.shell.springboot.ShellException;
+
+/**
+ *
+ * @author anand
+ */
+public class UserInputDispatcherTest {
+
+    private final HighlightUserInputProcessor highlightProcessor = new HighlightUserInputProcessor();
+    private final PagerUserInputProcessor pagerProcessor = new PagerUserInputProcessor();
+    private final DefaultUserInputProcessor defaultProcessor = new DefaultUserInputProcessor();
+    private final UserInputDispatcher dispatcher = new UserInputDispatcher(
+            Arrays.<BaseUserInputProcessor>asList(highlightProcessor, pagerProcessor, defaultProcessor));
+
+    @Test
+    public void testDispatchWithoutPipe() {
+        assertSame(defaultProcessor, dispatcher.dispatch("help").get());
+        assertSame(defaultProcessor, dispatcher.dispatch("test run h x").get());
+    }
+
+    @Test
+    public void testDispatchToSymbolProcessor() {
+        assertSame(highlightProcessor, dispatcher.dispatch("help | h exit").get());
+        assertSame(highlightProcessor, dispatcher.dispatch("help|h  exit").get());
+        assertSame(highlightProcessor, dispatcher.dispatch("help | x | h exit").get());
+        assertSame(pagerProcessor, dispatcher.dispatch("help | grep x | more ").get());
+    }
+
+    @Test
+    public void testDispatchIgnoresQuotedPipes() throws ShellException {
+        assertSame(defaultProcessor, dispatcher.dispatch("logfile grep 'a|b'").get());
+        assertSame(defaultProcessor, dispatcher.dispatch("logfile grep a\\|more").get());
+        assertSame(highlightProcessor, dispatcher.dispatch("help | h 'a|b'").get());
+        assertSame(highlightProcessor, dispatcher.dispatch("help | grep 'x|h y' | h /a\\|b/").get());
+        String[] tokens = highlightProcessor.splitAtLastPipe("help | grep 'x|h y' | h '/a|b/'");
+        assertEquals("help | grep 'x|h y' ", tokens[0]);
+        assertEquals("/a|b/", highlightProcessor.getSymbolArgument(tokens[1]));
+    }
+
+    @Test
+    public void testDispatchUnknownOrIncompleteSymbolToDefault() {
+        assertSame(defaultProcessor, dispatcher.dispatch("help | x").get());
+        assertSame(defaultProcessor, dispatcher.dispatch("help | h").get());
+        assertSame(defaultProcessor, dispatcher.dispatch("help | h exit | x y").get());
+        assertSame(defaultProcessor, dispatcher.dispatch("help | more x").get());
+    }
+
+    @Test
+    public void testDispatchedInputAcceptedByProcessor() throws ShellException {
+        assertEquals("exit", highlightProcessor.getSymbolArgument(" h  exit "));
+        String[] tokens = highlightProcessor.splitAtLastPipe("help | y | h x");
+        assertEquals("help | y ", tokens[0]);
+        assertEquals("x", highlightProcessor.getSymbolArgument(tokens[1]));
+        assertNull(pagerProcessor.getSymbolArgument(" more "));
+    }
+
+    @Test(expected = ShellException.class)
+    public void testInputNotDispatchedRejectedByProcessor() throws ShellException {
+        highlightProcessor.getSymbolArgument(" h ");
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.sshd.common.channel.Window;
+import org.apache.sshd.server.channel.ChannelSession;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import sshd.shell.springboot.autoconfiguration.SshdShellProperties.Shell.Output;
+
+/**
+ *
+ * @author anand
+ */
+public class ChannelWindowOutputTest {
+
+    @Test
+    public void testChunksAreBoundedByWindow() throws Exception {
+        Window remoteWindow = mock(Window.class);
+        when(remoteWindow.getPacketSize()).thenReturn(1000L);
+        when(remoteWindow.getSize()).thenReturn(5L, 0L, 4L, 3L);
+        ChannelSession channel = mock(ChannelSession.class);
+        when(channel.getRemoteWindow()).thenReturn(remoteWindow);
+        List<Integer> chunks = new ArrayList<>();
+        ByteArrayOutputStream written = new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write(byte[] b, int off, int len) {
+                chunks.add(len);
+                super.write(b, off, len);
+            }
+        };
+        ChannelWindowOutput channelWindowOutput = new ChannelWindowOutput(new Output());
+        try (OutputStream os = channelWindowOutput.wrap(channel, written)) {
+            os.write("hello world!".getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals("hello world!", written.toString(StandardCharsets.UTF_8.name()));
+        assertEquals(Arrays.asList(5, 4, 3), chunks);
+        verify(remoteWindow, times(1)).waitForSpace(30_000);
+        assertEquals(12, channelWindowOutput.getWrittenBytes());
+        assertEquals(0, channelWindowOutput.getPendingBytes());
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.server;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import org.junit.After;
+import org.junit.Test;
+import sshd.shell.springboot.autoconfiguration.SshdShellProperties.Shell.Executor;
+import sshd.shell.springboot.autoconfiguration.SshdShellProperties.Shell.Sessions;
+
+/**
+ *
+ * @author anand
+ */
+public class SessionExecutorTest {
+
+    private final CountDownLatch end = new CountDownLatch(1);
+    private final SessionExecutor sessionExecutor = newSessionExecutor();
+
+    private static SessionExecutor newSessionExecutor() {
+        Executor props = new Executor();
+        props.setType(Executor.Type.PLATFORM);
+        props.setMaxThreads(10);
+        Sessions sessionProps = new Sessions();
+        sessionProps.setMax(3);
+        sessionProps.setMaxPerUser(2);
+        return new SessionExecutor(props, sessionProps);
+    }
+
+    @After
+    public void shutdown() {
+        end.countDown();
+        sessionExecutor.shutdown();
+    }
+
+    @Test
+    public void testSessionLimits() {
+        Future<?> alice = sessionExecutor.submit("alice", this::awaitEnd);
+        sessionExecutor.submit("alice", this::awaitEnd);
+        assertRejected("Too many concurrent sessions of user alice, please close one and try again", "alice");
+        sessionExecutor.submit("bob", this::awaitEnd);
+        assertRejected("Too many concurrent sessions, please try again later", "carol");
+        assertEquals(2, sessionExecutor.getUserCount());
+        assertEquals(1, sessionExecutor.getRejectedCount(SessionExecutor.Rejection.MAX_USER_SESSIONS));
+        assertEquals(1, sessionExecutor.getRejectedCount(SessionExecutor.Rejection.MAX_SESSIONS));
+        alice.cancel(true);
+        sessionExecutor.submit("carol", this::awaitEnd);
+        assertEquals(3, sessionExecutor.getUserCount());
+    }
+
+    @Test
+    public void testSessionReleasedWhenEnded() throws Exception {
+        sessionExecutor.submit("alice", () -> {
+            throw new IllegalStateException("Session failed");
+        });
+        for (int i = 0; i < 500 && sessionExecutor.getUserCount() > 0; i++) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        assertEquals(0, sessionExecutor.getUserCount());
+        sessionExecutor.submit("alice", this::awaitEnd);
+        sessionExecutor.submit("alice", this::awaitEnd);
+        assertEquals(1, sessionExecutor.getUserCount());
+    }
+
+    private void assertRejected(String message, String user) {
+        try {
+            sessionExecutor.submit(user, this::awaitEnd);
+            throw new AssertionError("Session should have been rejected");
+        } catch (RejectedExecutionException ex) {
+            assertEquals(message, ex.getMessage());
+        }
+    }
+
+    private void awaitEnd() {
+        try {
+            end.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
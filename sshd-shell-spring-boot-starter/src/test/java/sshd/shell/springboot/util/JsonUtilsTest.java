@@ -0,0 +1,61 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.util;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ *
+ * @author anand
+ */
+public class JsonUtilsTest {
+
+    @Test
+    public void testWriteJsonMatchesAsJson() throws IOException {
+        Map<String, Object> object = Collections.singletonMap("key", Collections.singletonList("value"));
+        StringWriter writer = new StringWriter();
+        JsonUtils.writeJson(object, writer);
+        assertEquals(JsonUtils.asJson(object), writer.toString());
+    }
+
+    @Test
+    public void testWriteJsonFlushesPeriodically() throws IOException {
+        List<String> object = IntStream.range(0, 10_000).mapToObj(i -> "value" + i).collect(Collectors.toList());
+        FlushCountingWriter writer = new FlushCountingWriter();
+        JsonUtils.writeJson(object, writer);
+        assertEquals(JsonUtils.asJson(object), writer.toString());
+        assertTrue(writer.flushCount > 1);
+    }
+
+    private static class FlushCountingWriter extends StringWriter {
+
+        private int flushCount;
+
+        @Override
+        public void flush() {
+            flushCount++;
+        }
+    }
+}
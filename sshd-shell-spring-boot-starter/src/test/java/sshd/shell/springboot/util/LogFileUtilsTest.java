@@ -0,0 +1,147 @@
+/*
+ * Copyright 2022 anand.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sshd.shell.springboot.util;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ *
+ * @author anand
+ */
+public class LogFileUtilsTest {
+
+    private Path writeLogFile(String name, String content) throws IOException {
+        return Files.write(Paths.get("target", name), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testTail() throws IOException {
+        Path file = writeLogFile("tail.log", "one\ntwo\nthree\n");
+        assertEquals("two\nthree\n", tail(file, 2));
+        assertEquals("one\ntwo\nthree\n", tail(file, 10));
+        assertEquals("", tail(file, 0));
+    }
+
+    @Test
+    public void testTailAcrossScanWindows() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            sb.append("line ").append(i).append(" é\n");
+        }
+        Path file = writeLogFile("tail-large.log", sb.append("last without terminator").toString());
+        assertEquals("line 19999 é\nlast without terminator", tail(file, 2));
+    }
+
+    @Test
+    public void testRange() throws IOException {
+        Path file = writeLogFile("range.log", "one\ntwo\nthree\n");
+        StringWriter writer = new StringWriter();
+        LogFileUtils.range(file, 4, 7, writer);
+        assertEquals("two", writer.toString());
+        writer = new StringWriter();
+        LogFileUtils.range(file, 8, Long.MAX_VALUE, writer);
+        assertEquals("three\n", writer.toString());
+    }
+
+    @Test
+    public void testFollow() throws Exception {
+        Path file = writeLogFile("follow.log", "one\ntwo\n");
+        StringWriter writer = new StringWriter();
+        Thread follower = new Thread(() -> {
+            try {
+                LogFileUtils.follow(file, 1, Duration.ofMillis(10), writer);
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        follower.start();
+        TimeUnit.MILLISECONDS.sleep(100);
+        Files.write(file, "three\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        TimeUnit.MILLISECONDS.sleep(100);
+        Files.write(file, "rotated\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.TRUNCATE_EXISTING);
+        TimeUnit.MILLISECONDS.sleep(100);
+        follower.interrupt();
+        follower.join(1000);
+        assertEquals("two\nthree\nrotated\n", writer.toString());
+    }
+
+    @Test
+    public void testGrepWithContext() throws IOException {
+        Path file = writeLogFile("grep.log", "a\nb\nmatch 1\nc\nd\ne\nmatch 2\nmatch 3\nf\n");
+        GrepOptions options = GrepOptions.builder().pattern(Pattern.compile("match")).contextLines(1).build();
+        assertEquals("b\nmatch 1\nc\n--\ne\nmatch 2\nmatch 3\nf\n", grep(file, options));
+    }
+
+    @Test
+    public void testGrepInParallelChunks() throws IOException {
+        StringBuilder content = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            String line = "line " + i;
+            content.append(line).append('\n');
+            if (i % 5 == 0) {
+                expected.append(line).append('\n');
+            }
+        }
+        Path file = writeLogFile("grep-large.log", content.toString());
+        GrepOptions options = GrepOptions.builder().pattern(Pattern.compile("^line \\d*[05]$"))
+                .parallelism(4).chunkSize(1000).build();
+        assertEquals(expected.toString(), grep(file, options));
+        Pattern pattern = Pattern.compile("^line \\d*(00|17)$");
+        assertEquals(grep(file, GrepOptions.builder().pattern(pattern).contextLines(3).parallelism(1).build()),
+                grep(file, GrepOptions.builder().pattern(pattern).contextLines(3).parallelism(4).chunkSize(100)
+                        .build()));
+    }
+
+    @Test
+    public void testGrepBetweenTimestamps() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 60; i++) {
+            content.append(String.format("2022-06-01 10:%02d:00.000  INFO entry %d\n", i, i))
+                    .append("\tat stack.trace.Line\n");
+        }
+        Path file = writeLogFile("grep-time.log", content.toString());
+        GrepOptions options = GrepOptions.builder().pattern(Pattern.compile("INFO|stack"))
+                .from(LocalDateTime.parse("2022-06-01T10:20:00")).to(LocalDateTime.parse("2022-06-01T10:21:00"))
+                .parallelism(1).build();
+        assertEquals("2022-06-01 10:20:00.000  INFO entry 20\n\tat stack.trace.Line\n"
+                + "2022-06-01 10:21:00.000  INFO entry 21\n\tat stack.trace.Line\n", grep(file, options));
+    }
+
+    private String grep(Path file, GrepOptions options) throws IOException {
+        StringWriter writer = new StringWriter();
+        LogFileUtils.grep(file, options, writer);
+        return writer.toString();
+    }
+
+    private String tail(Path file, int lines) throws IOException {
+        StringWriter writer = new StringWriter();
+        LogFileUtils.tail(file, lines, writer);
+        return writer.toString();
+    }
+}
@@ -17,13 +17,22 @@ package sshd.shell.springboot.util;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import org.junit.Test;
+import org.springframework.util.StreamUtils;
 
 /**
  *
@@ -40,5 +49,61 @@ public class ZipUtilsTest {
         Path result = ZipUtils.zipFiles(zipDir.toPath(), true, filesToZip);
         assertEquals(Paths.get("target/banner.txt.zip"), result);
         assertFalse(new File("target/banner.txt").exists());
-    }   
+    }
+
+    @Test
+    public void testZipFilesStoresCompressedFiles() throws IOException {
+        Path png = Paths.get("target/banner.png");
+        Files.copy(Paths.get("src/test/resources/banner.png"), png, StandardCopyOption.REPLACE_EXISTING);
+        Path result = ZipUtils.zipFiles(Paths.get("target"), false, png);
+        try (ZipFile zipFile = new ZipFile(result.toFile())) {
+            ZipEntry entry = zipFile.getEntry("banner.png");
+            assertEquals(ZipEntry.STORED, entry.getMethod());
+            assertArrayEquals(Files.readAllBytes(png), StreamUtils.copyToByteArray(zipFile.getInputStream(entry)));
+        }
+    }
+
+    @Test
+    public void testGzipFileInParallelBlocks() throws IOException {
+        byte[] content = new byte[100_000];
+        new Random(0).nextBytes(content);
+        Path source = Files.write(Paths.get("target/gzip-source.bin"), content);
+        Path target = Paths.get("target/gzip-source.bin.gz");
+        AtomicLong progress = new AtomicLong();
+        ZipUtils.gzipFile(source, target, ArchiveOptions.builder().parallelism(4).blockSize(8192).build(),
+                progress::set);
+        assertEquals(content.length, progress.get());
+        try (InputStream is = new GZIPInputStream(Files.newInputStream(target))) {
+            assertArrayEquals(content, StreamUtils.copyToByteArray(is));
+        }
+    }
+
+    @Test
+    public void testGzipFileSequentially() throws IOException {
+        byte[] content = new byte[100_000];
+        Random random = new Random(0);
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) ('a' + random.nextInt(4));
+        }
+        Path source = Files.write(Paths.get("target/gzip-sequential.bin"), content);
+        Path target = Paths.get("target/gzip-sequential.bin.gz");
+        ZipUtils.gzipFile(source, target, ArchiveOptions.builder().parallelism(1).bufferSize(1024).build(),
+                progress -> {
+                });
+        assertTrue(Files.size(target) < content.length);
+        try (InputStream is = new GZIPInputStream(Files.newInputStream(target))) {
+            assertArrayEquals(content, StreamUtils.copyToByteArray(is));
+        }
+    }
+
+    @Test
+    public void testGzipEmptyFile() throws IOException {
+        Path source = Files.write(Paths.get("target/gzip-empty.bin"), new byte[0]);
+        Path target = Paths.get("target/gzip-empty.bin.gz");
+        ZipUtils.gzipFile(source, target, progress -> {
+        });
+        try (InputStream is = new GZIPInputStream(Files.newInputStream(target))) {
+            assertEquals(-1, is.read());
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package demo;
 
 import java.io.IOException;
+import java.util.Objects;
 import org.springframework.stereotype.Component;
 import sshd.shell.springboot.autoconfiguration.SshSessionContext;
 import sshd.shell.springboot.autoconfiguration.SshdShellCommand;
@@ -13,20 +14,23 @@ import sshd.shell.springboot.console.ConsoleIO;
 @Component
 @SshdShellCommand(value = "echo", description = "Echo by users. Type 'echo' for supported subcommands")
 public class EchoCommand {
+
+    private static final SshSessionContext.Key<String> NAME = SshSessionContext.Key.of("name");
     
     @SshdShellCommand(value = "bob", description = "Bob's echo. Usage: echo bob <arg>")
     public String bobSays(String arg) throws IOException {
         String name = ConsoleIO.readInput("What's your name?");
-        SshSessionContext.put("name", name);
+        SshSessionContext.put(NAME, name);
         return "bob echoes " + arg + " and your name is " + name + ", rooted filesystem path is "
                 + SshSessionContext.getUserDir().toString();
     }
     
     @SshdShellCommand(value = "alice", description = "Alice's echo. Usage: echo alice <arg>")
     public String aliceSays(String arg) {
+        String name = SshSessionContext.get(NAME);
         String str = "";
-        if (SshSessionContext.containsKey("name")) {
-            str = ", Name " + SshSessionContext.get("name") + " exists";
+        if (Objects.nonNull(name)) {
+            str = ", Name " + name + " exists";
         }
         return "alice says " + arg + str;
     }